@@ -0,0 +1,131 @@
+package com.medisync.medisync.benchmark;
+
+import com.medisync.medisync.cache.CacheCodecRegistry;
+import com.medisync.medisync.cache.CacheCodecs;
+import com.medisync.medisync.config.RedisConfig;
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Role;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips through the Redis cache serializers: the binary codecs of {@link CacheCodecRegistry} against
+ * the JSON serializer and the JDK serialization the list caches used before. Encoded sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializationBenchmark {
+
+    @Param({"10", "200"})
+    public int listSize;
+
+    private final GenericJackson2JsonRedisSerializer json = RedisConfig.jsonCacheSerializer();
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+    private final CacheCodecRegistry codecs = new CacheCodecRegistry(1024)
+            .register("userDetails", 2, CacheCodecs.USER)
+            .register("appointments", 3, CacheCodecs.APPOINTMENT)
+            .register("patientAppointments", 3, CacheCodecs.listOf(CacheCodecs.APPOINTMENT));
+    private final RedisSerializer<Object> userCodec = codecs.serializer("userDetails");
+    private final RedisSerializer<Object> appointmentCodec = codecs.serializer("appointments");
+    private final RedisSerializer<Object> appointmentListCodec = codecs.serializer("patientAppointments");
+
+    private User user;
+    private Appointment appointment;
+    private ArrayList<Appointment> appointments;
+    private byte[] appointmentListJsonBytes;
+    private byte[] appointmentListCodecBytes;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId("65f1c0ffee0000000000abcd");
+        user.setUsername("dr.alice");
+        user.setPassword("$2a$10$Dow1yQ3Vq4yJm0XwS8cG0uW0b1Qm4k2Yw9bq3qk6YyU6o0yq5Q1yK");
+        user.setRole(Role.DOCTOR);
+        user.setPhoneNumber("0123456789");
+
+        appointment = appointment(0);
+        appointments = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            appointments.add(appointment(i));
+        }
+        appointmentListJsonBytes = json.serialize(appointments);
+        appointmentListCodecBytes = appointmentListCodec.serialize(appointments);
+
+        System.out.printf("%nEncoded bytes: user json %d / codec %d, appointment json %d / codec %d, "
+                        + "%d appointments json %d / jdk %d / codec %d%n",
+                json.serialize(user).length, userCodec.serialize(user).length,
+                json.serialize(appointment).length, appointmentCodec.serialize(appointment).length,
+                listSize, appointmentListJsonBytes.length, jdk.serialize(appointments).length, appointmentListCodecBytes.length);
+    }
+
+    @Benchmark
+    public Object userJson() {
+        return json.deserialize(json.serialize(user));
+    }
+
+    @Benchmark
+    public Object appointmentJson() {
+        return json.deserialize(json.serialize(appointment));
+    }
+
+    @Benchmark
+    public Object appointmentListJson() {
+        return json.deserialize(json.serialize(appointments));
+    }
+
+    @Benchmark
+    public Object appointmentListJdk() {
+        return jdk.deserialize(jdk.serialize(appointments));
+    }
+
+    @Benchmark
+    public Object userCodec() {
+        return userCodec.deserialize(userCodec.serialize(user));
+    }
+
+    @Benchmark
+    public Object appointmentCodec() {
+        return appointmentCodec.deserialize(appointmentCodec.serialize(appointment));
+    }
+
+    @Benchmark
+    public Object appointmentListCodec() {
+        return appointmentListCodec.deserialize(appointmentListCodec.serialize(appointments));
+    }
+
+    // Cache hits only decode.
+    @Benchmark
+    public Object appointmentListJsonDecode() {
+        return json.deserialize(appointmentListJsonBytes);
+    }
+
+    @Benchmark
+    public Object appointmentListCodecDecode() {
+        return appointmentListCodec.deserialize(appointmentListCodecBytes);
+    }
+
+    private static Appointment appointment(int i) {
+        Appointment appointment = new Appointment();
+        appointment.setId(String.format("65f1c0ffee00000000%06d", i));
+        appointment.setPatientId("65f1c0ffee0000000000beef");
+        appointment.setDoctorId("65f1c0ffee0000000000abcd");
+        appointment.setReason("Follow-up consultation for recurring migraines");
+        appointment.setStatus(Status.CONFIRMED);
+        appointment.setAppointmentDate("2025-03-" + String.format("%02d", 1 + i % 28));
+        appointment.setAppointmentTime((9 + i % 9) + ":00");
+        appointment.setAppointmentAt(Appointment.toDateTime(appointment.getAppointmentDate(), appointment.getAppointmentTime()));
+        return appointment;
+    }
+}
@@ -0,0 +1,53 @@
+package com.medisync.medisync.benchmark;
+
+import com.medisync.medisync.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done by every authenticated request. {@code verifiedCacheSize = 0} measures the full
+ * signature check; the default size measures the verified-token cache hit that {@code JwtFilter} sees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "q6S3fTt0b9yqZxKp2kVnQ1m8Yw4eR7uJ5hG3dA0sLcE=";
+
+    @Param({"0", "10000"})
+    public long verifiedCacheSize;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        token = jwtUtil.generateToken("dr.alice", "ROLE_DOCTOR", "65f1c0ffee0000000000abcd");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("dr.alice", "ROLE_DOCTOR", "65f1c0ffee0000000000abcd");
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, "dr.alice");
+    }
+}
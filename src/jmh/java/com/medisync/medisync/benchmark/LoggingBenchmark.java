@@ -0,0 +1,133 @@
+package com.medisync.medisync.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost a request thread pays for one service log statement. {@code sync} is the previous setup: a
+ * pattern-encoded file appender written from the calling thread. {@code async} is the current one: a
+ * bounded {@link AsyncAppender} in front of a JSON file appender, which drops INFO when nearly full, as
+ * it does under overload. {@code debugStatement} is a statement moved to DEBUG with INFO enabled.
+ * <p>
+ * A read such as {@code findAppById} logged two INFO statements per request and now logs them at DEBUG:
+ * its per-request overhead was {@code readRequestBefore} with {@code sync} and is {@code readRequestAfter}
+ * with {@code async}. Writes keep their one INFO statement, {@code infoStatement}. The async appender can
+ * only take the file write off the caller when its worker has a core to itself; on a single core it competes
+ * with the callers, so compare {@code sync} and {@code async} with fewer {@code -t} threads than cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"sync", "async"})
+    public String pipeline;
+
+    private LoggerContext context;
+    private Logger logger;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logging-benchmark");
+        context = new LoggerContext();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        Appender<ILoggingEvent> appender = "sync".equals(pipeline)
+                ? fileAppender(patternEncoder())
+                : asyncAppender(fileAppender(jsonEncoder()));
+
+        logger = context.getLogger("com.medisync.medisync.service.AppointmentService");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.stop();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void infoStatement() {
+        logger.info("Fetching appointment by ID: {}", "65f1c0ffee0000000000abcd");
+    }
+
+    @Benchmark
+    public void debugStatement() {
+        logger.debug("Fetching appointment by ID: {}", "65f1c0ffee0000000000abcd");
+    }
+
+    @Benchmark
+    public void readRequestBefore() {
+        logger.info("Fetching appointment by ID: {}", "65f1c0ffee0000000000abcd");
+        logger.info("Appointment found with ID: {}", "65f1c0ffee0000000000abcd");
+    }
+
+    @Benchmark
+    public void readRequestAfter() {
+        logger.debug("Fetching appointment by ID: {}", "65f1c0ffee0000000000abcd");
+        logger.debug("Appointment found with ID: {}", "65f1c0ffee0000000000abcd");
+    }
+
+    private Encoder<ILoggingEvent> patternEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> jsonEncoder() {
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat("logstash");
+        encoder.start();
+        return encoder;
+    }
+
+    private Appender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve("medisync.log").toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private Appender<ILoggingEvent> asyncAppender(Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setDiscardingThreshold(1024);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,63 @@
+package com.medisync.medisync.benchmark;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.CustomUserDetails;
+import com.medisync.medisync.entity.Status;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request object work outside the token: building the principal in {@code JwtFilter} and
+ * validating a booking in {@code AppointmentController.createApp}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPathBenchmark {
+
+    private Validator validator;
+    private Appointment validAppointment;
+    private Appointment invalidAppointment;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        validAppointment = new Appointment();
+        validAppointment.setPatientId("65f1c0ffee0000000000beef");
+        validAppointment.setDoctorId("65f1c0ffee0000000000abcd");
+        validAppointment.setReason("Annual check-up");
+        validAppointment.setStatus(Status.PENDING);
+        validAppointment.setAppointmentDate("2025-03-14");
+        validAppointment.setAppointmentTime("10:30");
+
+        invalidAppointment = new Appointment();
+        invalidAppointment.setAppointmentDate("14/03/2025");
+        invalidAppointment.setAppointmentTime("25:99");
+    }
+
+    @Benchmark
+    public CustomUserDetails customUserDetails() {
+        return new CustomUserDetails("65f1c0ffee0000000000abcd", "dr.alice", List.of(new SimpleGrantedAuthority("ROLE_DOCTOR")));
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Appointment>> validateValidAppointment() {
+        return validator.validate(validAppointment);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Appointment>> validateInvalidAppointment() {
+        return validator.validate(invalidAppointment);
+    }
+}
@@ -0,0 +1,113 @@
+package com.medisync.medisync.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medisync.medisync.entity.Appointment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Knows which cache entries an appointment write touches and invalidates exactly those: the
+ * {@code appointments} entry for its id and the {@code patientAppointments}/{@code doctorAppointments}
+ * lists of the old and new patient and doctor. Pages are keyed by a generation counter (one overall and
+ * one per doctor) that is bumped on write, so stale pages simply stop being read and age out by TTL.
+ * Each instance keeps the counters it reads for {@code cache.page-generation.refresh}, so page reads do not
+ * go to Redis every time; another instance's write shows up here within that interval, this instance's own
+ * writes at once.
+ */
+@Slf4j
+@Component
+public class AppointmentCacheInvalidator {
+
+    private static final String PAGE_GENERATION_KEY = "appointmentPages:generation:";
+    private static final String ALL_DOCTORS = "*";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final com.github.benmanes.caffeine.cache.Cache<String, String> generations;
+
+    public AppointmentCacheInvalidator(CacheManager cacheManager, StringRedisTemplate redisTemplate,
+                                       @Value("${cache.page-generation.refresh:1s}") Duration refresh) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.generations = Caffeine.newBuilder().expireAfterWrite(refresh).maximumSize(10_000).build();
+    }
+
+    public void onSaved(Appointment previous, Appointment saved) {
+        evictLists(previous);
+        evictLists(saved);
+        bumpPageGenerations(previous, saved);
+    }
+
+    public void onDeleted(Appointment deleted) {
+        evict("appointments", deleted.getId());
+        evictLists(deleted);
+        bumpPageGenerations(deleted, null);
+    }
+
+    /**
+     * Generation to embed in page cache keys; pages filtered by doctor only change when that doctor's
+     * appointments do.
+     */
+    public String pageGeneration(String doctorId) {
+        return generations.get(doctorId != null ? doctorId : ALL_DOCTORS, this::readGeneration);
+    }
+
+    private String readGeneration(String scope) {
+        try {
+            String generation = redisTemplate.opsForValue().get(PAGE_GENERATION_KEY + scope);
+            return generation != null ? generation : "0";
+        } catch (Exception e) {
+            log.warn("Could not read page generation: {}", e.getMessage());
+            return "0";
+        }
+    }
+
+    private void evictLists(Appointment appointment) {
+        if (appointment == null) {
+            return;
+        }
+        evict("patientAppointments", appointment.getPatientId());
+        evict("doctorAppointments", appointment.getDoctorId());
+    }
+
+    private void bumpPageGenerations(Appointment first, Appointment second) {
+        Set<String> scopes = new LinkedHashSet<>();
+        scopes.add(ALL_DOCTORS);
+        if (first != null && first.getDoctorId() != null) {
+            scopes.add(first.getDoctorId());
+        }
+        if (second != null && second.getDoctorId() != null) {
+            scopes.add(second.getDoctorId());
+        }
+        try {
+            for (String scope : scopes) {
+                Long generation = redisTemplate.opsForValue().increment(PAGE_GENERATION_KEY + scope);
+                if (generation != null) {
+                    generations.put(scope, String.valueOf(generation));
+                } else {
+                    generations.invalidate(scope);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not bump page generations {}: {}", scopes, e.getMessage());
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        if (key == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
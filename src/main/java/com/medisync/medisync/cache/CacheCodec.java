@@ -0,0 +1,17 @@
+package com.medisync.medisync.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding of one cached value type. Fields are written in a fixed order without names, so a
+ * change to the fields or their order must be registered under a new schema version in
+ * {@link CacheCodecRegistry}; entries written with the old one are then treated as misses.
+ */
+public interface CacheCodec<T> {
+
+    void write(DataOutput out, T value) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
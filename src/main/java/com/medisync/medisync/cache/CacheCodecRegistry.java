@@ -0,0 +1,184 @@
+package com.medisync.medisync.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The Redis value serializers of caches that have a {@link CacheCodec}. Every value starts with a
+ * three-byte header: a marker, the cache's schema version and flags. Encoded values of at least
+ * {@code compressionThreshold} bytes are deflated when that makes them smaller. A {@link StampedValue}
+ * keeps its stale time and load time between the header and the body.
+ * <p>
+ * Values with another schema version, or written by a different serializer before the cache was
+ * registered, read as {@code null}, which the cache treats as a miss and overwrites on the next load.
+ */
+@Slf4j
+public class CacheCodecRegistry {
+
+    static final int MARKER = 0xCB;
+    static final int HEADER_LENGTH = 3;
+    private static final int COMPRESSED = 1;
+    private static final int STAMPED = 2;
+
+    private final int compressionThreshold;
+    private final Map<String, RedisSerializer<Object>> serializers = new LinkedHashMap<>();
+
+    public CacheCodecRegistry(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Registers the codec of {@code cacheName}; {@code version} (1 to 255) must be raised whenever the
+     * codec's encoding changes.
+     */
+    public <T> CacheCodecRegistry register(String cacheName, int version, CacheCodec<T> codec) {
+        if (version < 1 || version > 255) {
+            throw new IllegalArgumentException("Schema version must be between 1 and 255: " + version);
+        }
+        serializers.put(cacheName, new VersionedSerializer<>(cacheName, version, codec, compressionThreshold));
+        return this;
+    }
+
+    public Set<String> getCacheNames() {
+        return Collections.unmodifiableSet(serializers.keySet());
+    }
+
+    public RedisSerializer<Object> serializer(String cacheName) {
+        RedisSerializer<Object> serializer = serializers.get(cacheName);
+        if (serializer == null) {
+            throw new IllegalArgumentException("No cache codec registered for cache: " + cacheName);
+        }
+        return serializer;
+    }
+
+    private static final class VersionedSerializer<T> implements RedisSerializer<Object> {
+
+        private final String cacheName;
+        private final int version;
+        private final CacheCodec<T> codec;
+        private final int compressionThreshold;
+
+        VersionedSerializer(String cacheName, int version, CacheCodec<T> codec, int compressionThreshold) {
+            this.cacheName = cacheName;
+            this.version = version;
+            this.codec = codec;
+            this.compressionThreshold = compressionThreshold;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public byte[] serialize(Object value) {
+            if (value == null) {
+                return null;
+            }
+            StampedValue stamped = value instanceof StampedValue s ? s : null;
+            try {
+                ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+                codec.write(new DataOutputStream(body), (T) (stamped != null ? stamped.value() : value));
+                byte[] encoded = body.toByteArray();
+                byte[] deflated = encoded.length >= compressionThreshold ? deflate(encoded) : null;
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_LENGTH + 16 + encoded.length);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(MARKER);
+                out.writeByte(version);
+                out.writeByte((deflated != null ? COMPRESSED : 0) | (stamped != null ? STAMPED : 0));
+                if (stamped != null) {
+                    out.writeLong(stamped.staleAt());
+                    CacheCodecs.writeVarInt(out, stamped.loadMillis());
+                }
+                if (deflated != null) {
+                    CacheCodecs.writeVarInt(out, encoded.length);
+                    out.write(deflated);
+                } else {
+                    out.write(encoded);
+                }
+                return bytes.toByteArray();
+            } catch (IOException | ClassCastException e) {
+                throw new SerializationException("Cannot encode value of cache " + cacheName + ": " + value.getClass().getName(), e);
+            }
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            if (bytes == null) {
+                return null;
+            }
+            if (bytes.length < HEADER_LENGTH || (bytes[0] & 0xFF) != MARKER || (bytes[1] & 0xFF) != version) {
+                log.debug("Ignoring entry of cache {} written with another schema", cacheName);
+                return null;
+            }
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH));
+                long staleAt = 0;
+                int loadMillis = 0;
+                if ((bytes[2] & STAMPED) != 0) {
+                    staleAt = in.readLong();
+                    loadMillis = CacheCodecs.readVarInt(in);
+                }
+                if ((bytes[2] & COMPRESSED) != 0) {
+                    in = new DataInputStream(new ByteArrayInputStream(inflate(in, bytes)));
+                }
+                T value = codec.read(in);
+                return (bytes[2] & STAMPED) != 0 ? new StampedValue(value, staleAt, loadMillis) : value;
+            } catch (IOException | DataFormatException e) {
+                throw new SerializationException("Cannot decode entry of cache " + cacheName, e);
+            }
+        }
+
+        // Null when deflating does not pay off.
+        private static byte[] deflate(byte[] encoded) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length / 2);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(encoded);
+                deflater.finish();
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                    if (out.size() >= encoded.length) {
+                        return null;
+                    }
+                }
+            } finally {
+                deflater.end();
+            }
+            return out.toByteArray();
+        }
+
+        private static byte[] inflate(DataInputStream in, byte[] bytes) throws IOException, DataFormatException {
+            int length = CacheCodecs.readVarInt(in);
+            int offset = bytes.length - in.available();
+            byte[] encoded = new byte[length];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(bytes, offset, bytes.length - offset);
+                int produced = 0;
+                while (produced < length && !inflater.finished()) {
+                    int n = inflater.inflate(encoded, produced, length - produced);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    produced += n;
+                }
+                if (produced != length) {
+                    throw new DataFormatException("Expected " + length + " bytes, inflated " + produced);
+                }
+            } finally {
+                inflater.end();
+            }
+            return encoded;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.medisync.medisync.cache;
+
+import com.medisync.medisync.dto.AppointmentPage;
+import com.medisync.medisync.dto.DoctorSummary;
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Role;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.entity.User;
+import org.bson.types.ObjectId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The codecs of the cached entities and DTOs, and the primitives they are built from. Nullable values
+ * are prefixed with a marker; Mongo ids are stored as their 12 raw bytes.
+ */
+public final class CacheCodecs {
+
+    private static final int ID_NULL = 0;
+    private static final int ID_OBJECT_ID = 1;
+    private static final int ID_STRING = 2;
+
+    public static final CacheCodec<Appointment> APPOINTMENT = new CacheCodec<>() {
+        @Override
+        public void write(DataOutput out, Appointment appointment) throws IOException {
+            writeId(out, appointment.getId());
+            writeId(out, appointment.getPatientId());
+            writeId(out, appointment.getDoctorId());
+            writeString(out, appointment.getReason());
+            writeEnum(out, appointment.getStatus());
+            writeString(out, appointment.getAppointmentDate());
+            writeString(out, appointment.getAppointmentTime());
+            writeDateTime(out, appointment.getAppointmentAt());
+            writeVersion(out, appointment.getVersion());
+            writeString(out, appointment.getSlotKey());
+        }
+
+        @Override
+        public Appointment read(DataInput in) throws IOException {
+            Appointment appointment = new Appointment();
+            appointment.setId(readId(in));
+            appointment.setPatientId(readId(in));
+            appointment.setDoctorId(readId(in));
+            appointment.setReason(readString(in));
+            appointment.setStatus(readEnum(in, Status.class));
+            appointment.setAppointmentDate(readString(in));
+            appointment.setAppointmentTime(readString(in));
+            appointment.setAppointmentAt(readDateTime(in));
+            appointment.setVersion(readVersion(in));
+            appointment.setSlotKey(readString(in));
+            return appointment;
+        }
+    };
+
+    public static final CacheCodec<User> USER = new CacheCodec<>() {
+        @Override
+        public void write(DataOutput out, User user) throws IOException {
+            writeId(out, user.getId());
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeEnum(out, user.getRole());
+            writeString(out, user.getPhoneNumber());
+            writeVersion(out, user.getVersion());
+        }
+
+        @Override
+        public User read(DataInput in) throws IOException {
+            User user = new User();
+            user.setId(readId(in));
+            user.setUsername(readString(in));
+            user.setPassword(readString(in));
+            user.setRole(readEnum(in, Role.class));
+            user.setPhoneNumber(readString(in));
+            user.setVersion(readVersion(in));
+            return user;
+        }
+    };
+
+    public static final CacheCodec<DoctorSummary> DOCTOR_SUMMARY = new CacheCodec<>() {
+        @Override
+        public void write(DataOutput out, DoctorSummary doctor) throws IOException {
+            writeId(out, doctor.getId());
+            writeString(out, doctor.getUsername());
+            writeString(out, doctor.getPhoneNumber());
+        }
+
+        @Override
+        public DoctorSummary read(DataInput in) throws IOException {
+            return new DoctorSummary(readId(in), readString(in), readString(in));
+        }
+    };
+
+    public static final CacheCodec<AppointmentPage> APPOINTMENT_PAGE = new CacheCodec<>() {
+        private final CacheCodec<List<Appointment>> content = listOf(APPOINTMENT);
+
+        @Override
+        public void write(DataOutput out, AppointmentPage page) throws IOException {
+            content.write(out, page.getContent());
+            writeString(out, page.getNextCursor());
+        }
+
+        @Override
+        public AppointmentPage read(DataInput in) throws IOException {
+            return new AppointmentPage(content.read(in), readString(in));
+        }
+    };
+
+    private CacheCodecs() {
+    }
+
+    /**
+     * A list of {@code element}s, read back as an {@link ArrayList}; null elements are not supported.
+     */
+    public static <T> CacheCodec<List<T>> listOf(CacheCodec<T> element) {
+        return new CacheCodec<>() {
+            @Override
+            public void write(DataOutput out, List<T> values) throws IOException {
+                writeVarInt(out, values.size());
+                for (T value : values) {
+                    element.write(out, value);
+                }
+            }
+
+            @Override
+            public List<T> read(DataInput in) throws IOException {
+                int size = readVarInt(in);
+                List<T> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    values.add(element.read(in));
+                }
+                return values;
+            }
+        };
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A string id; lowercase 24-digit hex ids, which is how Mongo renders them, take 12 bytes instead of 24.
+     */
+    public static void writeId(DataOutput out, String id) throws IOException {
+        if (id == null) {
+            out.writeByte(ID_NULL);
+        } else if (isObjectIdHex(id)) {
+            out.writeByte(ID_OBJECT_ID);
+            out.write(new ObjectId(id).toByteArray());
+        } else {
+            out.writeByte(ID_STRING);
+            writeString(out, id);
+        }
+    }
+
+    public static String readId(DataInput in) throws IOException {
+        int kind = in.readUnsignedByte();
+        switch (kind) {
+            case ID_NULL:
+                return null;
+            case ID_OBJECT_ID:
+                byte[] bytes = new byte[12];
+                in.readFully(bytes);
+                return new ObjectId(bytes).toHexString();
+            case ID_STRING:
+                return readString(in);
+            default:
+                throw new IOException("Unknown id marker " + kind);
+        }
+    }
+
+    // Ordinals, so reordering an enum's constants needs a schema version bump like any other field change.
+    public static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        writeVarInt(out, value == null ? 0 : value.ordinal() + 1);
+    }
+
+    public static <E extends Enum<E>> E readEnum(DataInput in, Class<E> type) throws IOException {
+        int ordinal = readVarInt(in) - 1;
+        if (ordinal < 0) {
+            return null;
+        }
+        E[] constants = type.getEnumConstants();
+        if (ordinal >= constants.length) {
+            throw new IOException("Unknown " + type.getSimpleName() + " ordinal " + ordinal);
+        }
+        return constants[ordinal];
+    }
+
+    public static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(out, value.getNano());
+        }
+    }
+
+    public static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = in.readLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(in), ZoneOffset.UTC);
+    }
+
+    // Versions only count up from 0, so they are written as varlongs shifted by one to leave 0 for null.
+    public static void writeVersion(DataOutput out, Long version) throws IOException {
+        long value = version == null ? 0 : version + 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static Long readVersion(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value == 0 ? null : value - 1;
+            }
+        }
+        throw new IOException("Malformed version");
+    }
+
+    private static boolean isObjectIdHex(String id) {
+        if (id.length() != 24) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package com.medisync.medisync.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts local-cache invalidations over Redis pub/sub so that every instance drops its L1 copy.
+ * Messages are {@code instanceId|cacheName|key}; an empty key means "clear the whole cache".
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "medisync:cache-invalidation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        if (key instanceof String stringKey && !stringKey.isEmpty()) {
+            publish(cacheName + "|" + stringKey);
+        } else {
+            publishClear(cacheName);
+        }
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName + "|");
+    }
+
+    private void publish(String payload) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + payload);
+        } catch (Exception e) {
+            // Peers fall back to their local TTL; the write itself already succeeded.
+            log.warn("Failed to publish cache invalidation {}: {}", payload, e.getMessage());
+        }
+    }
+}
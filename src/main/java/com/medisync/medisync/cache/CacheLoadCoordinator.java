@@ -0,0 +1,88 @@
+package com.medisync.medisync.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared settings and the Redis lease of the {@link CoalescingCache}s. The lease is a short-lived key per
+ * cache entry that lets one instance load a missing or stale entry while the others wait for it or keep
+ * serving the old value. Redis errors grant the lease, so loads fall back to one per instance.
+ */
+@Slf4j
+public class CacheLoadCoordinator {
+
+    private static final String LEASE_KEY = "cache:lease:";
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Duration lease;
+    @Getter
+    private final Duration leaseWait;
+    @Getter
+    private final Duration pollInterval;
+    private final double staleJitter;
+    private final double earlyRefreshBeta;
+
+    /**
+     * @param staleJitter      entries go stale at a random point in the last {@code staleJitter} fraction of their TTL
+     * @param earlyRefreshBeta how eagerly entries are reloaded before going stale; 0 turns early reloads off
+     */
+    public CacheLoadCoordinator(StringRedisTemplate redisTemplate, Duration lease, Duration leaseWait,
+                                Duration pollInterval, double staleJitter, double earlyRefreshBeta) {
+        this.redisTemplate = redisTemplate;
+        this.lease = lease;
+        this.leaseWait = leaseWait;
+        this.pollInterval = pollInterval;
+        this.staleJitter = staleJitter;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    boolean tryAcquire(String cacheName, Object key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), instanceId, lease));
+        } catch (Exception e) {
+            log.warn("Could not take cache load lease for {} '{}': {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    void release(String cacheName, Object key) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(cacheName, key)), instanceId);
+        } catch (Exception e) {
+            log.debug("Could not release cache load lease for {} '{}': {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * When an entry written now with {@code ttl} should be reloaded; jittered so entries written together
+     * do not all go stale together.
+     */
+    long staleAt(Duration ttl) {
+        long ttlMillis = ttl.toMillis();
+        return System.currentTimeMillis() + ttlMillis - (long) (ttlMillis * staleJitter * ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * True once the value is stale, and before that with a probability that grows as the stale time nears
+     * and with how long the value took to load (XFetch).
+     */
+    boolean isDue(StampedValue value) {
+        double headStart = -value.loadMillis() * earlyRefreshBeta * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + headStart >= value.staleAt();
+    }
+
+    private static String leaseKey(String cacheName, Object key) {
+        return LEASE_KEY + cacheName + "::" + key;
+    }
+}
@@ -0,0 +1,24 @@
+package com.medisync.medisync.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Exposes L1/L2 hit counts at {@code /actuator/cachetiers} (when included in the web exposure).
+ */
+@Component
+@Endpoint(id = "cachetiers")
+@RequiredArgsConstructor
+public class CacheTierEndpoint {
+
+    private final TwoTierCacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, CacheTierStats> cacheTiers() {
+        return cacheManager.stats();
+    }
+}
@@ -0,0 +1,5 @@
+package com.medisync.medisync.cache;
+
+public record CacheTierStats(long localHits, long localMisses, double localHitRatio, long localSize,
+                             long localEvictions, long remoteHits, long remoteMisses, long puts, long evictions) {
+}
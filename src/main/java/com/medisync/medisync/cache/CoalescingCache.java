@@ -0,0 +1,194 @@
+package com.medisync.medisync.cache;
+
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a missing or expiring entry from being loaded by every caller at once; used through
+ * {@code @Cacheable(sync = true)}, which calls {@link #get(Object, Callable)}.
+ * <ul>
+ *     <li>Concurrent loads of one key in this instance share a single call of the loader.</li>
+ *     <li>Across instances, the one holding the Redis lease loads a missing entry while the others poll
+ *     for it briefly, loading it themselves if it has not appeared within the short lease wait.</li>
+ *     <li>Values are stored with a jittered stale time ahead of the TTL. Once it has passed, or slightly
+ *     earlier by chance, one caller reloads the entry while the rest keep getting the current value.</li>
+ * </ul>
+ * A {@code ttl} of zero means entries never expire and are only reloaded after eviction.
+ */
+public class CoalescingCache implements Cache {
+
+    @Getter
+    private final Cache delegate;
+    private final CacheLoadCoordinator coordinator;
+    private final Duration ttl;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    public CoalescingCache(Cache delegate, CacheLoadCoordinator coordinator, Duration ttl) {
+        this.delegate = delegate;
+        this.coordinator = coordinator;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        return wrapper != null && wrapper.get() instanceof StampedValue stamped ? new SimpleValueWrapper(stamped.value()) : wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        StampedValue current = null;
+        if (wrapper != null) {
+            if (!(wrapper.get() instanceof StampedValue stamped)) {
+                return (T) wrapper.get();
+            }
+            if (!coordinator.isDue(stamped)) {
+                return (T) stamped.value();
+            }
+            current = stamped;
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inProgress = loads.putIfAbsent(key, load);
+        if (inProgress != null) {
+            return current != null ? (T) current.value() : (T) await(inProgress);
+        }
+        try {
+            Object value = current != null ? reload(key, current, valueLoader) : loadMissing(key, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, stamp(value, 0));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, stamp(value, 0));
+        return existing != null && existing.get() instanceof StampedValue stamped ? new SimpleValueWrapper(stamped.value()) : existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    // Another instance already reloading keeps serving the current value here too.
+    private Object reload(Object key, StampedValue current, Callable<?> valueLoader) {
+        if (!coordinator.tryAcquire(getName(), key)) {
+            return current.value();
+        }
+        try {
+            return loadAndPut(key, valueLoader);
+        } finally {
+            coordinator.release(getName(), key);
+        }
+    }
+
+    private Object loadMissing(Object key, Callable<?> valueLoader) {
+        if (coordinator.tryAcquire(getName(), key)) {
+            try {
+                return loadAndPut(key, valueLoader);
+            } finally {
+                coordinator.release(getName(), key);
+            }
+        }
+        // Only this caller waits; the others in this instance wait on its load. The wait is kept short, as it
+        // holds a request thread, and never outlasts the lease wait however the poll interval is set.
+        long deadline = System.nanoTime() + coordinator.getLeaseWait().toNanos();
+        try {
+            for (long left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+                Thread.sleep(Math.max(1, Math.min(coordinator.getPollInterval().toMillis(), left / 1_000_000)));
+                ValueWrapper wrapper = get(key);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return loadAndPut(key, valueLoader);
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        int loadMillis = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - start) / 1_000_000);
+        delegate.put(key, stamp(value, loadMillis));
+        return value;
+    }
+
+    private Object stamp(Object value, int loadMillis) {
+        if (value == null || ttl.isZero()) {
+            return value;
+        }
+        return new StampedValue(value, coordinator.staleAt(ttl), loadMillis);
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
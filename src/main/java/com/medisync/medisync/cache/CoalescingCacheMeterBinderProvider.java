@@ -0,0 +1,26 @@
+package com.medisync.medisync.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the meters of the cache behind a {@link CoalescingCache}, which the registrar would otherwise skip.
+ */
+@Component
+public class CoalescingCacheMeterBinderProvider implements CacheMeterBinderProvider<CoalescingCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(CoalescingCache cache, Iterable<Tag> tags) {
+        if (cache.getDelegate() instanceof TwoTierCache twoTierCache) {
+            return new TwoTierCacheMeterBinder(twoTierCache, tags);
+        }
+        if (cache.getDelegate() instanceof RedisCache redisCache) {
+            return new RedisCacheMetrics(redisCache, tags);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.medisync.medisync.cache;
+
+/**
+ * A value stored by {@link CoalescingCache}: {@code staleAt} (epoch millis) is when it should be reloaded,
+ * somewhat before the entry's TTL runs out, and {@code loadMillis} how long loading it took.
+ */
+public record StampedValue(Object value, long staleAt, int loadMillis) {
+}
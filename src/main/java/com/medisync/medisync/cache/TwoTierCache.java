@@ -0,0 +1,138 @@
+package com.medisync.medisync.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded in-process cache (L1) in front of a shared Redis cache (L2). Reads are served from L1 when
+ * possible; every write goes to both tiers and is broadcast so other instances drop their L1 copy.
+ * <p>
+ * L1 holds values encoded with the cache's serializer and decodes them on every hit, so each caller gets
+ * its own copy, as from Redis, and mutating a returned entity cannot change what other callers see.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final byte[] NULL_VALUE = new byte[0];
+
+    private final Cache remote;
+    private final RedisSerializer<Object> serializer;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, byte[]> local;
+    private final CacheInvalidationPublisher publisher;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TwoTierCache(Cache remote, RedisSerializer<Object> serializer, long maxSize, Duration ttl, CacheInvalidationPublisher publisher) {
+        this.remote = remote;
+        this.serializer = serializer;
+        this.publisher = publisher;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        byte[] cached = local.getIfPresent(key);
+        if (cached != null) {
+            return new SimpleValueWrapper(fromStoreValue(cached));
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.put(key, toStoreValue(wrapper.get()));
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remote.get(key, valueLoader);
+        puts.increment();
+        local.put(key, toStoreValue(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        puts.increment();
+        local.put(key, toStoreValue(value));
+        publisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictions.increment();
+        local.invalidate(key);
+        publisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publishClear(getName());
+    }
+
+    void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    public CacheTierStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats localStats = local.stats();
+        return new CacheTierStats(localStats.hitCount(), localStats.missCount(), localStats.hitRate(),
+                local.estimatedSize(), localStats.evictionCount(), remoteHits.sum(), remoteMisses.sum(), puts.sum(), evictions.sum());
+    }
+
+    private byte[] toStoreValue(Object value) {
+        return value != null ? serializer.serialize(value) : NULL_VALUE;
+    }
+
+    private Object fromStoreValue(byte[] value) {
+        return value == NULL_VALUE ? null : serializer.deserialize(value);
+    }
+}
@@ -0,0 +1,95 @@
+package com.medisync.medisync.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Wraps the Redis cache manager and puts a {@link TwoTierCache} in front of the configured cache names,
+ * and a {@link CoalescingCache} in front of the caches given with their TTL as {@code coalescedCaches}.
+ * Each local tier encodes its values with the serializer {@code localSerializers} gives for the cache name.
+ * Also listens for invalidations published by other instances.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remote;
+    private final Set<String> localCacheNames;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final Function<String, RedisSerializer<Object>> localSerializers;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheLoadCoordinator coordinator;
+    private final Map<String, Duration> coalescedCaches;
+    private final Map<String, TwoTierCache> twoTierCaches = new ConcurrentHashMap<>();
+    private final Map<String, CoalescingCache> coalescingCaches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remote, Collection<String> localCacheNames, long localMaxSize,
+                               Duration localTtl, Function<String, RedisSerializer<Object>> localSerializers,
+                               CacheInvalidationPublisher publisher,
+                               CacheLoadCoordinator coordinator, Map<String, Duration> coalescedCaches) {
+        this.remote = remote;
+        this.localCacheNames = Set.copyOf(localCacheNames);
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.localSerializers = localSerializers;
+        this.publisher = publisher;
+        this.coordinator = coordinator;
+        this.coalescedCaches = Map.copyOf(coalescedCaches);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = localCacheNames.contains(name) ? getTwoTierCache(name) : remote.getCache(name);
+        Duration ttl = coalescedCaches.get(name);
+        if (cache == null || ttl == null) {
+            return cache;
+        }
+        return coalescingCaches.computeIfAbsent(name, n -> new CoalescingCache(cache, coordinator, ttl));
+    }
+
+    private Cache getTwoTierCache(String name) {
+        return twoTierCaches.computeIfAbsent(name, n -> {
+            Cache remoteCache = remote.getCache(n);
+            return remoteCache != null ? new TwoTierCache(remoteCache, localSerializers.apply(n), localMaxSize, localTtl, publisher) : null;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    public Map<String, CacheTierStats> stats() {
+        Map<String, CacheTierStats> stats = new TreeMap<>();
+        twoTierCaches.forEach((name, cache) -> stats.put(name, cache.stats()));
+        return stats;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(publisher.getInstanceId())) {
+            return;
+        }
+        TwoTierCache cache = twoTierCaches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        log.debug("Applied remote invalidation for cache {} key '{}'", parts[1], parts[2]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.medisync.medisync.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Standard {@code cache.*} meters for a {@link TwoTierCache}, where a hit in either tier counts as a hit,
+ * plus {@code cache.tier.gets} broken down by tier to show how much traffic L1 keeps away from Redis.
+ */
+public class TwoTierCacheMeterBinder extends CacheMeterBinder<TwoTierCache> {
+
+    public TwoTierCacheMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        TwoTierCache cache = getCache();
+        return cache != null ? cache.stats().localSize() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TwoTierCache cache = getCache();
+        if (cache == null) {
+            return 0;
+        }
+        CacheTierStats stats = cache.stats();
+        return stats.localHits() + stats.remoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        TwoTierCache cache = getCache();
+        return cache != null ? cache.stats().remoteMisses() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TwoTierCache cache = getCache();
+        return cache != null ? cache.stats().evictions() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        TwoTierCache cache = getCache();
+        return cache != null ? cache.stats().puts() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        tierCounter(registry, "local", "hit", CacheTierStats::localHits);
+        tierCounter(registry, "local", "miss", CacheTierStats::localMisses);
+        tierCounter(registry, "remote", "hit", CacheTierStats::remoteHits);
+        tierCounter(registry, "remote", "miss", CacheTierStats::remoteMisses);
+        FunctionCounter.builder("cache.tier.evictions", getCache(), cache -> cache.stats().localEvictions())
+                .tags(getTagsWithCacheName())
+                .tag("tier", "local")
+                .description("Entries dropped from the local tier for size or age")
+                .register(registry);
+    }
+
+    private void tierCounter(MeterRegistry registry, String tier, String result, ToDoubleFunction<CacheTierStats> count) {
+        FunctionCounter.builder("cache.tier.gets", getCache(), cache -> count.applyAsDouble(cache.stats()))
+                .tags(getTagsWithCacheName())
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.medisync.medisync.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets Boot's cache metrics registrar bind {@link TwoTierCache}s; plain Redis caches are covered by its
+ * built-in provider once statistics are enabled on the cache manager.
+ */
+@Component
+public class TwoTierCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoTierCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+        return new TwoTierCacheMeterBinder(cache, tags);
+    }
+}
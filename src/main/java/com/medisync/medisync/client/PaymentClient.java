@@ -0,0 +1,148 @@
+package com.medisync.medisync.client;
+
+import com.medisync.medisync.dto.PaymentRequest;
+import com.medisync.medisync.dto.PaymentResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client for the payment service's checkout endpoint. Calls go over a pooled keep-alive connection pool
+ * with connect and read timeouts, through a circuit breaker, on a bounded executor of their own so a slow
+ * payment service cannot tie up request threads. With virtual threads enabled each call gets its own
+ * virtual thread instead, and a semaphore keeps the same bound on calls in flight.
+ */
+@Slf4j
+@Component
+public class PaymentClient {
+
+    private final String checkoutUrl;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor executor;
+    private final Semaphore virtualThreadPermits;
+
+    public PaymentClient(@Value("${payment.service.url:http://localhost:8000/api/payments}") String serviceUrl,
+                         @Value("${payment.client.max-connections:50}") int maxConnections,
+                         @Value("${payment.client.connect-timeout:2s}") Duration connectTimeout,
+                         @Value("${payment.client.read-timeout:5s}") Duration readTimeout,
+                         @Value("${payment.client.threads:32}") int threads,
+                         @Value("${payment.client.queue-capacity:200}") int queueCapacity,
+                         @Value("${payment.client.circuit.failure-rate-threshold:50}") float failureRateThreshold,
+                         @Value("${payment.client.circuit.open-duration:10s}") Duration openDuration,
+                         @Value("${payment.client.circuit.slow-call-duration:2s}") Duration slowCallDuration,
+                         Environment environment) {
+        this.checkoutUrl = serviceUrl + "/checkout";
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        this.circuitBreaker = CircuitBreaker.of("payment", CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                // Well below the read timeout, so a slowing payment service opens the circuit before calls time out.
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .waitDurationInOpenState(openDuration)
+                .build());
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.executor = new VirtualThreadTaskExecutor("payment-client-");
+            this.virtualThreadPermits = new Semaphore(threads + queueCapacity);
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-client-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+        this.virtualThreadPermits = null;
+    }
+
+    /**
+     * Starts a checkout session. Completes exceptionally with
+     * {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException} while the circuit is open and
+     * with {@link RejectedExecutionException} when too many calls are already in flight.
+     */
+    public CompletableFuture<ResponseEntity<PaymentResponse>> checkoutAsync(PaymentRequest request) {
+        if (virtualThreadPermits == null) {
+            try {
+                return CompletableFuture.supplyAsync(() -> checkout(request), executor);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!virtualThreadPermits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many payment calls in flight"));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return checkout(request);
+            } finally {
+                virtualThreadPermits.release();
+            }
+        }, executor);
+    }
+
+    public ResponseEntity<PaymentResponse> checkout(PaymentRequest request) {
+        return circuitBreaker.executeSupplier(() -> restTemplate.postForEntity(checkoutUrl, request, PaymentResponse.class));
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+        httpClient.close();
+    }
+}
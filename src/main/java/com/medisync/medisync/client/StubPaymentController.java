@@ -0,0 +1,65 @@
+package com.medisync.medisync.client;
+
+import com.medisync.medisync.dto.PaymentRequest;
+import com.medisync.medisync.dto.PaymentResponse;
+import com.medisync.medisync.entity.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for the payment service, active with the {@code payment-stub} profile. Latency and
+ * failure rate are configurable so timeouts and the circuit breaker can be exercised offline. The delay
+ * does not hold a request thread, so a slow stub behaves like a slow remote service rather than starving
+ * the server it runs in.
+ */
+@Slf4j
+@Profile("payment-stub")
+@RestController
+@RequestMapping("/stub/payments")
+public class StubPaymentController {
+
+    @Value("${payment.stub.latency:200ms}")
+    private Duration latency;
+
+    @Value("${payment.stub.latency-jitter:0ms}")
+    private Duration latencyJitter;
+
+    @Value("${payment.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    @PostMapping("/checkout")
+    public CompletableFuture<ResponseEntity<PaymentResponse>> checkout(@RequestBody PaymentRequest request) {
+        long jitter = latencyJitter.toMillis() > 0 ? ThreadLocalRandom.current().nextLong(latencyJitter.toMillis() + 1) : 0;
+        Executor delayed = CompletableFuture.delayedExecutor(latency.toMillis() + jitter, TimeUnit.MILLISECONDS);
+        return CompletableFuture.supplyAsync(() -> respond(request), delayed);
+    }
+
+    private ResponseEntity<PaymentResponse> respond(PaymentRequest request) {
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            log.debug("Stub payment failing checkout for appointment {}", request.getAppointmentId());
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        String sessionId = "stub_" + UUID.randomUUID();
+        return ResponseEntity.ok(PaymentResponse.builder()
+                .sessionId(sessionId)
+                .status(Status.PENDING)
+                .message("Stub checkout session created")
+                .sessionUrl(request.getSuccessUrl() + "?session_id=" + sessionId)
+                .build());
+    }
+}
@@ -0,0 +1,49 @@
+package com.medisync.medisync.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+/**
+ * Creates the indexes declared on entities ({@code @Indexed}, {@code @CompoundIndex}) at startup, since
+ * Spring Data's automatic index creation is off by default. {@code ensureIndex} is a no-op for indexes
+ * that already exist.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            resolver.resolveIndexFor(entity.getType()).forEach(index -> {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (Exception e) {
+                    log.error("Could not create index {} on {}: {}", index.getIndexKeys(), entity.getCollection(), e.getMessage());
+                }
+            });
+            log.info("Ensured indexes for collection: {}", entity.getCollection());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.medisync.medisync.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Multi-document transactions, so that a write and the outbox entries it produces are committed together.
+ * MongoDB only supports them on a replica set or sharded cluster; a standalone server has to be started as
+ * a single-node replica set.
+ */
+@Configuration
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
@@ -1,15 +1,36 @@
 package com.medisync.medisync.config;
 
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medisync.medisync.cache.CacheCodecRegistry;
+import com.medisync.medisync.cache.CacheCodecs;
+import com.medisync.medisync.cache.CacheInvalidationPublisher;
+import com.medisync.medisync.cache.CacheLoadCoordinator;
+import com.medisync.medisync.cache.TwoTierCacheManager;
+import com.medisync.medisync.security.RevokedUserRegistry;
+import com.medisync.medisync.security.TokenRevocationList;
+import com.medisync.medisync.service.NotificationStreamService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 public class RedisConfig {
@@ -29,6 +50,102 @@ public class RedisConfig {
     public RedisCacheConfiguration cacheConfiguration() {
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonCacheSerializer()));
+    }
+
+    /**
+     * Binary value encodings of the application's caches; caches not registered here keep the JSON serializer.
+     * Raise a cache's version when its codec changes so old entries are ignored instead of misread.
+     */
+    @Bean
+    public CacheCodecRegistry cacheCodecRegistry(@Value("${cache.codec.compression-threshold:1024}") int compressionThreshold) {
+        return new CacheCodecRegistry(compressionThreshold)
+                .register("userDetails", 2, CacheCodecs.USER)
+                .register("allUsers", 2, CacheCodecs.listOf(CacheCodecs.USER))
+                .register("doctorDirectory", 1, CacheCodecs.listOf(CacheCodecs.DOCTOR_SUMMARY))
+                .register("appointments", 3, CacheCodecs.APPOINTMENT)
+                .register("appointmentPages", 3, CacheCodecs.APPOINTMENT_PAGE)
+                .register("patientAppointments", 3, CacheCodecs.listOf(CacheCodecs.APPOINTMENT))
+                .register("doctorAppointments", 3, CacheCodecs.listOf(CacheCodecs.APPOINTMENT));
+    }
+
+    /**
+     * Value serializer of the JSON caches; cached entities carry {@code java.time} fields.
+     */
+    public static GenericJackson2JsonRedisSerializer jsonCacheSerializer() {
+        return new GenericJackson2JsonRedisSerializer().configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationPublisher(stringRedisTemplate);
+    }
+
+    @Bean
+    public CacheLoadCoordinator cacheLoadCoordinator(StringRedisTemplate stringRedisTemplate,
+                                                     @Value("${cache.coalescing.lease:10s}") Duration lease,
+                                                     @Value("${cache.coalescing.lease-wait:200ms}") Duration leaseWait,
+                                                     @Value("${cache.coalescing.poll-interval:25ms}") Duration pollInterval,
+                                                     @Value("${cache.coalescing.stale-jitter:0.2}") double staleJitter,
+                                                     @Value("${cache.coalescing.early-refresh-beta:1.0}") double earlyRefreshBeta) {
+        return new CacheLoadCoordinator(stringRedisTemplate, lease, leaseWait, pollInterval, staleJitter, earlyRefreshBeta);
+    }
+
+    // Defining our own CacheManager switches off Boot's Redis cache auto-configuration,
+    // so the builder customizers are applied here instead. Caches are created up front so the
+    // metrics registrar, which binds the caches that exist at startup, sees all of them.
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory factory,
+                                            RedisCacheConfiguration cacheConfiguration,
+                                            ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers,
+                                            CacheInvalidationPublisher publisher,
+                                            CacheCodecRegistry codecRegistry,
+                                            CacheLoadCoordinator coordinator,
+                                            @Value("${cache.coalescing.names:appointments,appointmentPages,patientAppointments,doctorAppointments,allUsers,doctorDirectory}") Set<String> coalescedCacheNames,
+                                            @Value("${cache.local.names:userDetails}") List<String> localCacheNames,
+                                            @Value("${cache.local.max-size:10000}") long localMaxSize,
+                                            @Value("${cache.local.ttl:60s}") Duration localTtl,
+                                            @Value("${cache.names:userDetails,appointments,appointmentPages,patientAppointments,doctorAppointments,allUsers,doctorDirectory}") Set<String> cacheNames) {
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(factory)
+                .cacheDefaults(cacheConfiguration)
+                .initialCacheNames(cacheNames)
+                .enableStatistics();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        // After the customizers, so per-cache TTLs are kept and only the value serializer is swapped.
+        for (String cacheName : codecRegistry.getCacheNames()) {
+            RedisCacheConfiguration configuration = builder.getCacheConfigurationFor(cacheName).orElse(cacheConfiguration);
+            builder.withCacheConfiguration(cacheName, configuration.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(codecRegistry.serializer(cacheName))));
+        }
+        // Coalesced entries go stale relative to the cache's fixed TTL; the key and value do not affect it.
+        Map<String, Duration> coalescedCaches = new HashMap<>();
+        for (String cacheName : coalescedCacheNames) {
+            RedisCacheConfiguration configuration = builder.getCacheConfigurationFor(cacheName).orElse(cacheConfiguration);
+            coalescedCaches.put(cacheName, configuration.getTtlFunction().getTimeToLive(cacheName, null));
+        }
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        // The local tier copies values through the same encoding as Redis, so callers never share an instance.
+        Set<String> codecCacheNames = codecRegistry.getCacheNames();
+        return new TwoTierCacheManager(redisCacheManager, localCacheNames, localMaxSize, localTtl,
+                name -> codecCacheNames.contains(name) ? codecRegistry.serializer(name) : jsonCacheSerializer(),
+                publisher, coordinator, coalescedCaches);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory,
+                                                                       TwoTierCacheManager cacheManager,
+                                                                       RevokedUserRegistry revokedUserRegistry,
+                                                                       TokenRevocationList tokenRevocationList,
+                                                                       NotificationStreamService notificationStreamService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        container.addMessageListener(revokedUserRegistry, new ChannelTopic(RevokedUserRegistry.CHANNEL));
+        container.addMessageListener(tokenRevocationList, new ChannelTopic(TokenRevocationList.CHANNEL));
+        container.addMessageListener(notificationStreamService, new ChannelTopic(NotificationStreamService.CHANNEL));
+        return container;
     }
 }
@@ -3,6 +3,7 @@ package com.medisync.medisync.config;
 import com.medisync.medisync.repository.CustomUserDetailsServiceImp;
 import com.medisync.medisync.security.JwtFilter;
 import com.medisync.medisync.security.JwtUtil;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -61,8 +62,13 @@ public class SpringSecure {
                 .cors(Customizer.withDefaults())
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Async and error dispatches belong to a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // Public endpoints that don't require any authentication
                         .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers("/stub/payments/**").permitAll() // Only mapped with the payment-stub profile
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll() // Only served on the internal management port
                         .requestMatchers(HttpMethod.POST, "/user").permitAll()
 
                         // Unauthenticated access to GET endpoints for viewing data
@@ -73,13 +79,15 @@ public class SpringSecure {
                         // Authenticated users can view their own data
                         .requestMatchers(HttpMethod.GET, "/user/username/**").authenticated()
                         .requestMatchers(HttpMethod.GET, "/user/**").authenticated()
-                        .requestMatchers(HttpMethod.GET, "/appointment/doctor").hasRole("DOCTOR")
-                        .requestMatchers(HttpMethod.GET, "/appointment/patient").hasRole("PATIENT")
-                        .requestMatchers(HttpMethod.GET, "/notification/my").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/appointment/doctor", "/appointment/doctor/schedule").hasRole("DOCTOR")
+                        .requestMatchers(HttpMethod.GET, "/appointment/patient", "/appointment/patient/schedule").hasRole("PATIENT")
+                        .requestMatchers(HttpMethod.GET, "/notification/my", "/notification/feed", "/notification/unread-count", "/notification/stream").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/notification/read").authenticated()
 
                         // Specific role-based access for modifications
                         .requestMatchers(HttpMethod.POST, "/appointment").hasAnyRole("DOCTOR", "PATIENT") // Only doctors and patients can book appointments
                         .requestMatchers(HttpMethod.DELETE, "/user/**").hasRole("ADMIN")
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/user/**").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/appointment/**").permitAll()
                         // All other requests require authentication
@@ -100,14 +108,16 @@ public class SpringSecure {
     @Bean
     public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer() {
         return (builder) -> builder
-                .withCacheConfiguration("allAppointments",
-                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10)))
+                .withCacheConfiguration("appointmentPages",
+                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(2)))
                 .withCacheConfiguration("appointmentDetails",
                         RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(5)))
                 .withCacheConfiguration("patientAppointments",
-                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(5)))
+                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(30)))
                 .withCacheConfiguration("doctorAppointments",
-                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(5)));
+                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(30)))
+                .withCacheConfiguration("doctorDirectory",
+                        RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(60)));
     }
 
 
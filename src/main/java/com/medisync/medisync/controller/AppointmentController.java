@@ -1,24 +1,47 @@
 package com.medisync.medisync.controller;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medisync.medisync.client.PaymentClient;
+import com.medisync.medisync.dto.AppointmentPage;
 import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.CustomUserDetails;
 import com.medisync.medisync.entity.Status;
 import com.medisync.medisync.service.AppointmentService;
+import com.medisync.medisync.service.SlotCalendarService;
+import com.medisync.medisync.service.SlotConflictException;
 import com.medisync.medisync.service.UserService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.FieldError;
 import com.medisync.medisync.dto.PaymentResponse;
 import com.medisync.medisync.dto.PaymentRequest;
-import org.springframework.web.client.RestTemplate;
 import com.medisync.medisync.entity.User;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 import com.medisync.medisync.service.NotificationService;
 
 @RestController
@@ -29,22 +52,58 @@ public class AppointmentController {
     private final AppointmentService appointmentService;
     private final UserService userService;
     private final NotificationService notificationService;
-    private final RestTemplate restTemplate;
+    private final PaymentClient paymentClient;
+    private final SlotCalendarService slotCalendarService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
-    private final String PAYMENT_SERVICE_URL = "http://localhost:8000/api/payments";
+    private static final long MAX_AVAILABILITY_DAYS = 31;
+    private static final long MAX_SCHEDULE_DAYS = 92;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     @Autowired
-    public AppointmentController(AppointmentService appointmentService, UserService userService, NotificationService notificationService, RestTemplate restTemplate) {
+    public AppointmentController(AppointmentService appointmentService, UserService userService, NotificationService notificationService, PaymentClient paymentClient, SlotCalendarService slotCalendarService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.appointmentService = appointmentService;
         this.userService = userService;
         this.notificationService = notificationService;
-        this.restTemplate = restTemplate;
+        this.paymentClient = paymentClient;
+        this.slotCalendarService = slotCalendarService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<Appointment>> getAllApp() {
-        List<Appointment> appointments = appointmentService.findAllApp();
-        return new ResponseEntity<>(appointments, HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAllApp() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (Stream<Appointment> appointments = appointmentService.streamAllApp();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                for (Iterator<Appointment> it = appointments.iterator(); it.hasNext(); ) {
+                    writer.writeValue(generator, it.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getAppPage(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                        @RequestParam(required = false) Status status,
+                                        @RequestParam(required = false) String doctorId,
+                                        @RequestParam(required = false) String date) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Limit must be between 1 and " + MAX_PAGE_SIZE), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            AppointmentPage page = appointmentService.findAppPage(cursor, limit, status, doctorId, date);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Collections.singletonMap("message", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/{id}")
@@ -59,27 +118,51 @@ public class AppointmentController {
 
     @GetMapping("/patient")
     public ResponseEntity<List<Appointment>> getPatientAppointments() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        return ResponseEntity.ok(appointmentService.getAppointmentsForPatient(username));
+        return ResponseEntity.ok(appointmentService.getAppointmentsForPatient(currentUserId()));
     }
 
     @GetMapping("/doctor")
     public ResponseEntity<List<Appointment>> getDoctorAppointments() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        return ResponseEntity.ok(appointmentService.getAppointmentsForDoctor(username));
+        return ResponseEntity.ok(appointmentService.getAppointmentsForDoctor(currentUserId()));
+    }
+
+    @GetMapping("/doctor/schedule")
+    public ResponseEntity<?> getDoctorSchedule(@RequestParam String from, @RequestParam String to) {
+        return schedule(from, to, (start, end) -> appointmentService.getDoctorSchedule(currentUserId(), start, end));
+    }
+
+    @GetMapping("/patient/schedule")
+    public ResponseEntity<?> getPatientSchedule(@RequestParam String from, @RequestParam String to) {
+        return schedule(from, to, (start, end) -> appointmentService.getPatientSchedule(currentUserId(), start, end));
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<?> getAvailability(@RequestParam String doctorId, @RequestParam String from, @RequestParam String to) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (Exception e) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Dates must be in format yyyy-MM-dd"), HttpStatus.BAD_REQUEST);
+        }
+        if (toDate.isBefore(fromDate) || ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_AVAILABILITY_DAYS) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Range must be between 1 and " + MAX_AVAILABILITY_DAYS + " days"), HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(slotCalendarService.findFreeSlots(doctorId, fromDate, toDate));
     }
 
     @PostMapping
-    public ResponseEntity<?> createApp(@Valid @RequestBody Appointment appointment) {
+    public CompletableFuture<ResponseEntity<?>> createApp(@Valid @RequestBody Appointment appointment) {
+        Appointment savedAppointment;
+        PaymentRequest productRequest;
         try {
             appointment.setStatus(Status.PENDING);
-            Appointment savedAppointment = appointmentService.saveApp(appointment); // Notifications are now handled in the service
+            savedAppointment = appointmentService.saveApp(appointment); // Notifications are now handled in the service
 
             String doctorName = userService.findUserById(savedAppointment.getDoctorId()).map(User::getUsername).orElse("Unknown Doctor");
 
-            PaymentRequest productRequest = new PaymentRequest();
+            productRequest = new PaymentRequest();
             productRequest.setName("Appointment with Dr. " + doctorName);
             productRequest.setAmount(BigDecimal.valueOf(1000L));
             productRequest.setCurrency("INR");
@@ -88,27 +171,47 @@ public class AppointmentController {
             productRequest.setDoctorId(savedAppointment.getDoctorId());
             productRequest.setSuccessUrl("http://localhost:3000/payment-success");
             productRequest.setCancelUrl("http://localhost:3000/appointments");
+        } catch (SlotConflictException e) {
+            log.warn("Appointment slot unavailable: {}", e.getMessage());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(Collections.singletonMap("message", e.getMessage()), HttpStatus.CONFLICT));
+        } catch (Exception e) {
+            log.error("Error creating appointment: {}", e.getMessage(), e);
+            Map<String, String> errorResponse = Collections.singletonMap("message", "Error creating appointment: " + e.getMessage());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST));
+        }
 
-            ResponseEntity<PaymentResponse> paymentResponseEntity = restTemplate.postForEntity(
-                    PAYMENT_SERVICE_URL + "/checkout",
-                    productRequest,
-                    PaymentResponse.class
-            );
-
-            if (paymentResponseEntity.getStatusCode() == HttpStatus.OK && paymentResponseEntity.getBody() != null) {
+        // The request thread is released while the payment service is called.
+        Timer.Sample checkoutSample = Timer.start(meterRegistry);
+        return paymentClient.checkoutAsync(productRequest).handle((paymentResponseEntity, error) -> {
+            if (error == null && paymentResponseEntity.getStatusCode() == HttpStatus.OK && paymentResponseEntity.getBody() != null) {
+                checkoutSample.stop(meterRegistry.timer("payment.checkout", "outcome", "success"));
                 PaymentResponse paymentResponse = paymentResponseEntity.getBody();
                 return new ResponseEntity<>(paymentResponse, HttpStatus.OK);
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            boolean unavailable = cause instanceof CallNotPermittedException || cause instanceof RejectedExecutionException;
+            checkoutSample.stop(meterRegistry.timer("payment.checkout", "outcome", unavailable ? "rejected" : cause != null ? "error" : "failed"));
+
+            Appointment cancellation = new Appointment();
+            cancellation.setStatus(Status.CANCELLED);
+            try {
+                appointmentService.patchApp(savedAppointment.getId(), cancellation);
+            } catch (RuntimeException e) {
+                // The payment error is still what the client needs to see.
+                log.error("Could not cancel appointment {} after failed payment: {}", savedAppointment.getId(), e.getMessage(), e);
+            }
+            if (unavailable) {
+                log.warn("Payment service unavailable, appointment {} cancelled: {}", savedAppointment.getId(), cause.getMessage());
+                return new ResponseEntity<>(Collections.singletonMap("message", "Payment service is unavailable. Please try again shortly."), HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            if (cause != null) {
+                log.error("Error initiating payment for appointment {}: {}", savedAppointment.getId(), cause.getMessage(), cause);
             } else {
-                savedAppointment.setStatus(Status.CANCELLED);
-                appointmentService.saveApp(savedAppointment);
                 log.error("Failed to initiate payment. Status: {}", paymentResponseEntity.getStatusCode());
-                return new ResponseEntity<>("Failed to initiate payment.", HttpStatus.INTERNAL_SERVER_ERROR);
             }
-        } catch (Exception e) {
-            log.error("Error creating appointment or initiating payment: {}", e.getMessage(), e);
-            Map<String, String> errorResponse = Collections.singletonMap("message", "Error creating appointment: " + e.getMessage());
-            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
-        }
+            return new ResponseEntity<>("Failed to initiate payment.", HttpStatus.INTERNAL_SERVER_ERROR);
+        });
     }
 
     @DeleteMapping("/{id}")
@@ -128,36 +231,41 @@ public class AppointmentController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Appointment> updateAppointment(@PathVariable String id, @RequestBody Appointment updatedAppointment) {
-        Optional<Appointment> existingAppointmentOpt = appointmentService.findAppById(id);
-
-        if (existingAppointmentOpt.isPresent()) {
-            Appointment existingAppointment = existingAppointmentOpt.get();
+    public ResponseEntity<?> updateAppointment(@PathVariable String id, @RequestBody Appointment updatedAppointment) {
+        try {
+            Optional<Appointment> savedAppointment = appointmentService.patchApp(id, updatedAppointment); // Notifications are now handled in the service
+            return savedAppointment.<ResponseEntity<?>>map(ResponseEntity::ok).orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (SlotConflictException e) {
+            log.warn("Appointment slot unavailable: {}", e.getMessage());
+            return new ResponseEntity<>(Collections.singletonMap("message", e.getMessage()), HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Conflicting update of appointment {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(Collections.singletonMap("message", "Appointment was changed by someone else. Reload it and try again."), HttpStatus.CONFLICT);
+        }
+    }
 
-            if (updatedAppointment.getAppointmentDate() != null && !updatedAppointment.getAppointmentDate().isBlank()) {
-                existingAppointment.setAppointmentDate(updatedAppointment.getAppointmentDate());
-            }
-            if (updatedAppointment.getAppointmentTime() != null && !updatedAppointment.getAppointmentTime().isBlank()) {
-                existingAppointment.setAppointmentTime(updatedAppointment.getAppointmentTime());
-            }
-            if (updatedAppointment.getReason() != null && !updatedAppointment.getReason().isBlank()) {
-                existingAppointment.setReason(updatedAppointment.getReason());
-            }
-            if (updatedAppointment.getStatus() != null) {
-                existingAppointment.setStatus(updatedAppointment.getStatus());
-            }
-            if (updatedAppointment.getDoctorId() != null && !updatedAppointment.getDoctorId().isBlank()) {
-                existingAppointment.setDoctorId(updatedAppointment.getDoctorId());
-            }
-            if (updatedAppointment.getPatientId() != null && !updatedAppointment.getPatientId().isBlank()) {
-                existingAppointment.setPatientId(updatedAppointment.getPatientId());
-            }
+    // Bounds are a date (yyyy-MM-dd) or an ISO date-time; a date-only upper bound includes that whole day.
+    private ResponseEntity<?> schedule(String from, String to, BiFunction<LocalDateTime, LocalDateTime, List<Appointment>> query) {
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = from.contains("T") ? LocalDateTime.parse(from) : LocalDate.parse(from).atStartOfDay();
+            end = to.contains("T") ? LocalDateTime.parse(to) : LocalDate.parse(to).plusDays(1).atStartOfDay();
+        } catch (Exception e) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Bounds must be yyyy-MM-dd or yyyy-MM-ddTHH:mm"), HttpStatus.BAD_REQUEST);
+        }
+        if (!end.isAfter(start) || Duration.between(start, end).toDays() > MAX_SCHEDULE_DAYS) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Range must be positive and at most " + MAX_SCHEDULE_DAYS + " days"), HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(query.apply(start, end));
+    }
 
-            Appointment savedAppointment = appointmentService.saveApp(existingAppointment); // Notifications are now handled in the service
-            return new ResponseEntity<>(savedAppointment, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    private String currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth.getPrincipal() instanceof CustomUserDetails) {
+            return ((CustomUserDetails) auth.getPrincipal()).getId();
         }
+        throw new RuntimeException("Invalid user authentication");
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -2,125 +2,165 @@ package com.medisync.medisync.controller;
 
 import com.medisync.medisync.dto.LoginRequest;
 import com.medisync.medisync.dto.LoginResponse;
+import com.medisync.medisync.dto.RefreshRequest;
+import com.medisync.medisync.entity.CustomUserDetails;
 import com.medisync.medisync.entity.User;
+import com.medisync.medisync.security.JwtClaims;
 import com.medisync.medisync.security.JwtUtil;
+import com.medisync.medisync.security.LoginThrottle;
+import com.medisync.medisync.security.PasswordVerifier;
+import com.medisync.medisync.security.RefreshTokenStore;
+import com.medisync.medisync.security.TokenRevocationList;
 import com.medisync.medisync.service.UserService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.*;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.crypto.password.PasswordEncoder; // Import this
 import com.medisync.medisync.repository.CustomUserDetailsServiceImp;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authManager;
+    private JwtUtil jwtUtil;
 
     @Autowired
-    private CustomUserDetailsServiceImp userDetailsService;
+    private UserService userService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private PasswordVerifier passwordVerifier;
 
     @Autowired
-    private UserService userService;
+    private LoginThrottle loginThrottle;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private RefreshTokenStore refreshTokenStore;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    /**
+     * One lookup and one BCrypt check per attempt. The check runs on {@link PasswordVerifier}'s pool, so the
+     * request thread is released meanwhile and a login burst queues there instead of starving other endpoints.
+     * The attempt is counted against the throttle before the check. The client address is the one the
+     * gateway forwards, see {@code server.forward-headers-strategy}.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        Authentication authentication;
-        System.out.println("Login attempt for username: " + request.getUsername());
-        try {
-
-            UserDetails userDetailsForDebug = userDetailsService.loadUserByUsername(request.getUsername());
-
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request, HttpServletRequest servletRequest) {
+        String username = request.getUsername();
+        String address = servletRequest.getRemoteAddr();
+        if (username == null || username.isBlank()) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(Collections.singletonMap("error", "Invalid username or password."), HttpStatus.UNAUTHORIZED));
+        }
+        if (!loginThrottle.tryAcquire(username, address)) {
+            log.warn("Login throttled for username {} from {}", username, address);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getWindow().toSeconds()))
+                    .body(Collections.singletonMap("error", "Too many failed login attempts. Please try again later.")));
+        }
 
-            if (passwordEncoder.matches(request.getPassword(), userDetailsForDebug.getPassword())) {
-                System.out.println("Manual password check succeeded!");
-            } else {
-                System.err.println("Manual password check failed! Password mismatch.");
-                return new ResponseEntity<>("Password mismatch during manual check.", HttpStatus.UNAUTHORIZED);
-            }
+        Optional<User> user = userService.findByUsername(username);
+        return passwordVerifier.matches(request.getPassword(), user.map(User::getPassword).orElse(null))
+                .handle((matches, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof RejectedExecutionException) {
+                            log.warn("Login rejected for username {}: password verification queue is full", username);
+                            return new ResponseEntity<>(Collections.singletonMap("error", "Too many logins in progress. Please try again shortly."), HttpStatus.SERVICE_UNAVAILABLE);
+                        }
+                        log.error("Login failed for username {}: {}", username, cause.getMessage(), cause);
+                        return new ResponseEntity<>(Collections.singletonMap("error", "An unexpected error occurred during login."), HttpStatus.INTERNAL_SERVER_ERROR);
+                    }
+                    if (!matches) {
+                        log.info("Login failed: invalid username or password for {}", username);
+                        return new ResponseEntity<>(Collections.singletonMap("error", "Invalid username or password."), HttpStatus.UNAUTHORIZED);
+                    }
+
+                    loginThrottle.recordSuccess(username, address);
+                    log.debug("Login succeeded for {}", username);
+                    return new ResponseEntity<>(issueTokens(user.get()), HttpStatus.OK);
+                });
+    }
 
-            authentication = authManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
-            System.out.println("Authentication successful for username: " + request.getUsername());
-        } catch (BadCredentialsException e) {
-            System.err.println("Login failed: Invalid username or password for: " + request.getUsername());
-            Map<String, String> errorResponse = Collections.singletonMap("error", "Invalid username or password.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        } catch (DisabledException e) {
-            System.err.println("Login failed: Account disabled for username: " + request.getUsername());
-            Map<String, String> errorResponse = Collections.singletonMap("error", "User account is disabled.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        } catch (LockedException e) {
-            System.err.println("Login failed: Account locked for username: " + request.getUsername());
-            Map<String, String> errorResponse = Collections.singletonMap("error", "User account is locked.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        } catch (AuthenticationException e) {
-            System.err.println("Login failed: Generic authentication error for username: " + request.getUsername() + " - " + e.getMessage());
-            e.printStackTrace();
-            Map<String, String> errorResponse = Collections.singletonMap("error", "Authentication failed: " + e.getMessage());
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        } catch (Exception e) {
-            System.err.println("Login failed: Unexpected error during authentication for username: " + request.getUsername() + " - " + e.getMessage());
-            e.printStackTrace();
-            Map<String, String> errorResponse = Collections.singletonMap("error", "An unexpected error occurred during login.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    /**
+     * Trades a refresh token for a new access token and a new refresh token; the presented one is used up.
+     * The user is reloaded, so a deleted user cannot refresh and a changed role takes effect.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+            return new ResponseEntity<>(Collections.singletonMap("error", "Refresh token is required."), HttpStatus.BAD_REQUEST);
         }
-
-        UserDetails userDetails;
+        Optional<User> user;
         try {
-
-            userDetails = userDetailsService.loadUserByUsername(request.getUsername());
-            System.out.println("UserDetails loaded for: " + userDetails.getUsername());
-            System.out.println("User's stored password hash: " + userDetails.getPassword());
-        } catch (UsernameNotFoundException e) {
-            System.err.println("Login failed: User details not found after authentication for username: " + request.getUsername());
-            Map<String, String> errorResponse = Collections.singletonMap("error", "User details could not be retrieved.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+            user = refreshTokenStore.redeem(request.getRefreshToken()).flatMap(userService::findUserById);
         } catch (Exception e) {
-            System.err.println("Login failed: Error loading user details for username: " + request.getUsername() + " - " + e.getMessage());
-            e.printStackTrace();
-            Map<String, String> errorResponse = Collections.singletonMap("error", "Error retrieving user information.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+            log.error("Token refresh failed: {}", e.getMessage(), e);
+            return new ResponseEntity<>(Collections.singletonMap("error", "Token refresh is unavailable. Please try again shortly."), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (user.isEmpty()) {
+            return new ResponseEntity<>(Collections.singletonMap("error", "Invalid or expired refresh token."), HttpStatus.UNAUTHORIZED);
         }
+        return new ResponseEntity<>(issueTokens(user.get()), HttpStatus.OK);
+    }
 
+    /**
+     * Revokes the presented access token for the rest of its lifetime and discards the refresh token, if given.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshRequest request) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                JwtClaims claims = jwtUtil.verify(authHeader.substring(7));
+                if (claims.tokenId() != null && claims.expiration() != null) {
+                    tokenRevocationList.revoke(claims.tokenId(), claims.expiration());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Logout with an unusable access token: {}", e.getMessage());
+            }
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            try {
+                refreshTokenStore.discard(request.getRefreshToken());
+            } catch (Exception e) {
+                log.warn("Could not discard refresh token at logout: {}", e.getMessage());
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private LoginResponse issueTokens(User user) {
+        CustomUserDetails userDetails = CustomUserDetailsServiceImp.toUserDetails(user);
         String role = userDetails.getAuthorities().stream()
                 .findFirst()
                 .map(GrantedAuthority::getAuthority)
                 .orElse("");
-        System.out.println("User role extracted: " + role);
-
-        String jwt;
+        String jwt = jwtUtil.generateToken(userDetails.getUsername(), role, userDetails.getId());
+        String refreshToken = null;
         try {
-            jwt = jwtUtil.generateToken(userDetails.getUsername(), role);
-            System.out.println("JWT generated successfully for: " + userDetails.getUsername());
+            refreshToken = refreshTokenStore.issue(userDetails.getId());
         } catch (Exception e) {
-            System.err.println("Failed to generate JWT for: " + userDetails.getUsername() + " - " + e.getMessage());
-            e.printStackTrace();
-            Map<String, String> errorResponse = Collections.singletonMap("error", "Failed to generate authentication token.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+            // The access token still works; the client logs in again when it expires.
+            log.warn("Could not issue refresh token for user ID {}: {}", userDetails.getId(), e.getMessage());
         }
-
-        return new ResponseEntity<>(new LoginResponse(jwt, role), HttpStatus.OK);
+        return new LoginResponse(jwt, role, refreshToken);
     }
 
     @PostMapping("/signup")
@@ -131,8 +171,7 @@ public class AuthController {
             response.put("message", "Signup successful! You can now log in.");
             return new ResponseEntity<>(response, HttpStatus.CREATED);
         } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Signup error: " + e.getMessage());
+            log.error("Signup error: {}", e.getMessage(), e);
 
             Map<String, String> errorResponse = new HashMap<>();
             String errorMessage = e.getMessage();
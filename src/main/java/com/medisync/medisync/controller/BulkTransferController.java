@@ -0,0 +1,46 @@
+package com.medisync.medisync.controller;
+
+import com.medisync.medisync.dto.BulkImportReport;
+import com.medisync.medisync.service.BulkTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Admin-only NDJSON (one JSON document per line) import and export of appointments and users.
+ */
+@RestController
+@RequestMapping("/admin/bulk")
+@RequiredArgsConstructor
+public class BulkTransferController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BulkTransferService bulkTransferService;
+
+    @GetMapping(path = "/appointments", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAppointments() {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(bulkTransferService::exportAppointments);
+    }
+
+    @GetMapping(path = "/users", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(bulkTransferService::exportUsers);
+    }
+
+    @PostMapping(path = "/appointments", consumes = {NDJSON, MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<BulkImportReport> importAppointments(HttpServletRequest request,
+                                                               @RequestParam(defaultValue = "false") boolean notify) throws IOException {
+        return ResponseEntity.ok(bulkTransferService.importAppointments(request.getInputStream(), notify));
+    }
+
+    @PostMapping(path = "/users", consumes = {NDJSON, MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<BulkImportReport> importUsers(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bulkTransferService.importUsers(request.getInputStream()));
+    }
+}
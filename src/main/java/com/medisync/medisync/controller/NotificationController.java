@@ -5,13 +5,21 @@ import com.medisync.medisync.entity.CustomUserDetails;
 import com.medisync.medisync.entity.Notification;
 import com.medisync.medisync.repository.CustomUserDetailsServiceImp;
 import com.medisync.medisync.service.NotificationService;
+import com.medisync.medisync.service.NotificationStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 
 
@@ -20,9 +28,16 @@ import java.util.List;
 @RequestMapping("/notification")
 public class NotificationController {
 
+    private static final int MAX_MARK_READ = 1000;
+    private static final int DEFAULT_FEED_SIZE = 20;
+    private static final int MAX_FEED_SIZE = 100;
+
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
     @CrossOrigin(origins = "http://localhost:3000")
     @PostMapping("/send")
     public ResponseEntity<Notification> sendNotification(@RequestParam String userId, @RequestParam String message) {
@@ -34,18 +49,62 @@ public class NotificationController {
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/my")
     public ResponseEntity<List<Notification>> getMyNotifications() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        List<Notification> notifications = notificationService.getNotificationsForUser(currentUserId(), MAX_FEED_SIZE);
+        return ResponseEntity.ok(notifications);
+    }
 
-        String userId;
-        if (auth.getPrincipal() instanceof CustomUserDetails) {
-            // Correctly get the user's MongoDB ID from CustomUserDetails
-            userId = ((CustomUserDetails) auth.getPrincipal()).getId();
-        } else {
-            throw new RuntimeException("Invalid user authentication");
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/feed")
+    public ResponseEntity<?> getFeed(@RequestParam(required = false) String before,
+                                     @RequestParam(defaultValue = "" + DEFAULT_FEED_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_FEED_SIZE) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Limit must be between 1 and " + MAX_FEED_SIZE), HttpStatus.BAD_REQUEST);
+        }
+        LocalDateTime beforeTimestamp = null;
+        String beforeId = null;
+        if (before != null) {
+            String[] parts = before.split(",", 2);
+            try {
+                beforeTimestamp = LocalDateTime.parse(parts[0]);
+                beforeId = parts.length == 2 ? parts[1] : null;
+            } catch (DateTimeParseException e) {
+                return new ResponseEntity<>(Collections.singletonMap("message", "Cursor must be <timestamp>,<id>"), HttpStatus.BAD_REQUEST);
+            }
+        }
+        try {
+            return ResponseEntity.ok(notificationService.getFeed(currentUserId(), beforeTimestamp, beforeId, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Collections.singletonMap("message", e.getMessage()), HttpStatus.BAD_REQUEST);
         }
+    }
 
-        // Now, call the service with the correct userId
-        List<Notification> notifications = notificationService.getNotificationsForUser(userId);
-        return ResponseEntity.ok(notifications);
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount() {
+        return ResponseEntity.ok(Collections.singletonMap("unread", notificationService.getUnreadCount(currentUserId())));
+    }
+
+    @CrossOrigin(origins = "http://localhost:3000")
+    @PostMapping("/read")
+    public ResponseEntity<?> markRead(@RequestBody List<String> notificationIds) {
+        if (notificationIds.size() > MAX_MARK_READ) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "At most " + MAX_MARK_READ + " notifications per request"), HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(Collections.singletonMap("unread", notificationService.markRead(currentUserId(), notificationIds)));
+    }
+
+    @CrossOrigin(origins = "http://localhost:3000")
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications() {
+        return notificationStreamService.subscribe(currentUserId());
+    }
+
+    private String currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth.getPrincipal() instanceof CustomUserDetails) {
+            // The user's MongoDB ID, which is what notifications are addressed to
+            return ((CustomUserDetails) auth.getPrincipal()).getId();
+        }
+        throw new RuntimeException("Invalid user authentication");
     }
 }
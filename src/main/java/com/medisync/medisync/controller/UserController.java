@@ -1,8 +1,12 @@
 package com.medisync.medisync.controller;
+import com.medisync.medisync.dto.DoctorSummary;
+import com.medisync.medisync.entity.CustomUserDetails;
 import com.medisync.medisync.entity.User;
 import com.medisync.medisync.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,7 +15,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 
 @RestController
@@ -86,16 +89,14 @@ public class UserController {
 
     @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/doctors")
-    public ResponseEntity<List<User>> getDoctors() {
-        List<User> allUsers = userService.findAllUsers();
-        List<User> doctors = allUsers.stream()
-                .filter(user -> user.getRole() != null && user.getRole().name().equals("DOCTOR")) // Assuming role enum is "DOCTOR" (not "ROLE_DOCTOR")
-                .collect(Collectors.toList());
-        if (!doctors.isEmpty()) {
-            return new ResponseEntity<>(doctors, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.OK);
-        }
+    public ResponseEntity<?> getDoctors(@RequestParam(required = false) String prefix,
+                                        @RequestParam(required = false) Integer page,
+                                        @RequestParam(defaultValue = "50") int size) {
+        if ((page != null && page < 0) || size < 1 || size > 200) {
+            return new ResponseEntity<>("Page must be >= 0 and size between 1 and 200", HttpStatus.BAD_REQUEST);
+        }
+        List<DoctorSummary> doctors = userService.findDoctors(prefix, page, size);
+        return new ResponseEntity<>(doctors, HttpStatus.OK);
     }
 
 
@@ -140,35 +141,24 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(@PathVariable String id, @RequestBody User newEntry) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
         boolean isAdmin = auth.getAuthorities().stream()
                 .anyMatch(role -> role.getAuthority().equals("ROLE_ADMIN"));
-
-        Optional<User> optionalUser = userService.findUserById(id);
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-        }
-
-        User existingUser = optionalUser.get();
-
-        if (!isAdmin && !existingUser.getUsername().equals(currentUsername)) {
+        // Ownership comes from the token, so the user does not have to be loaded before the update.
+        boolean isSelf = auth.getPrincipal() instanceof CustomUserDetails principal && id.equals(principal.getId());
+        if (!isAdmin && !isSelf) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
         }
 
-        if (newEntry.getUsername() != null && !newEntry.getUsername().isBlank()) {
-            existingUser.setUsername(newEntry.getUsername());
-        }
-        if (newEntry.getPassword() != null && !newEntry.getPassword().isBlank()) {
-            existingUser.setPassword(newEntry.getPassword());
-        }
-        if (newEntry.getPhoneNumber() != null && !newEntry.getPhoneNumber().isBlank()) {
-            existingUser.setPhoneNumber(newEntry.getPhoneNumber());
-        }
-        if (isAdmin && newEntry.getRole() != null) {
-            existingUser.setRole(newEntry.getRole());
+        try {
+            Optional<User> updatedUser = userService.patchUser(id, newEntry, isAdmin);
+            if (updatedUser.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+            }
+            return ResponseEntity.ok(updatedUser.get());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("User was changed by someone else. Reload it and try again.");
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Username already exists. Please choose a different username.");
         }
-
-        userService.saveUser(existingUser);
-        return ResponseEntity.ok(existingUser);
     }
 }
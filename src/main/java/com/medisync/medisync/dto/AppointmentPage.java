@@ -0,0 +1,18 @@
+package com.medisync.medisync.dto;
+
+import com.medisync.medisync.entity.Appointment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentPage implements Serializable {
+
+    private List<Appointment> content;
+    private String nextCursor; // null when this is the last page
+}
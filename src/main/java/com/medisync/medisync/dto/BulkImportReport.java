@@ -0,0 +1,28 @@
+package com.medisync.medisync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkImportReport {
+
+    private long lines;
+    private long imported;
+    private long failed;
+    private List<LineError> errors = new ArrayList<>(); // first errors only, see failed for the total
+    private long elapsedMillis;
+    private double linesPerSecond;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
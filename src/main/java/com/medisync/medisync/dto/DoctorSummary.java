@@ -0,0 +1,20 @@
+package com.medisync.medisync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Projection of a doctor for the booking screen; never carries the password hash.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DoctorSummary implements Serializable {
+
+    private String id;
+    private String username;
+    private String phoneNumber;
+}
@@ -10,10 +10,12 @@ import lombok.NoArgsConstructor;
 public class LoginResponse {
     private String jwt;
     private String role;
+    private String refreshToken;
 
-    public LoginResponse(String jwt, String role) {
+    public LoginResponse(String jwt, String role, String refreshToken) {
         this.jwt = jwt;
         this.role = role;
+        this.refreshToken = refreshToken;
     }
 
 }
@@ -0,0 +1,17 @@
+package com.medisync.medisync.dto;
+
+import com.medisync.medisync.entity.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationFeed {
+
+    private List<Notification> content;
+    private String nextCursor; // "<timestamp>,<id>" of the last entry; null when this is the last page
+}
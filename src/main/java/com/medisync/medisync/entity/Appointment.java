@@ -5,13 +5,26 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 
 @Document(collection = "appointments")
+@CompoundIndex(name = "doctor_date_time", def = "{'doctorId': 1, 'appointmentDate': 1, 'appointmentTime': 1}")
+@CompoundIndex(name = "patient_date", def = "{'patientId': 1, 'appointmentDate': 1}")
+@CompoundIndex(name = "doctor_at", def = "{'doctorId': 1, 'appointmentAt': 1}")
+@CompoundIndex(name = "patient_at", def = "{'patientId': 1, 'appointmentAt': 1}")
 @Data
 public class Appointment implements Serializable  {
 
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("H:mm");
+
     @Id
     private String id;
 
@@ -35,6 +48,19 @@ public class Appointment implements Serializable  {
     @Pattern(regexp = "^([01]?[0-9]|2[0-3]):[0-5][0-9]$", message = "Time must be in format HH:mm")
     private String appointmentTime; // Changed to String as per your commented out lines
 
+    // Typed copy of appointmentDate + appointmentTime for range queries; recomputed on every write, so client values are ignored.
+    @Indexed
+    private LocalDateTime appointmentAt;
+
+    // Doctor, day and slot start while the appointment holds its slot, absent otherwise. Unique, so two
+    // instances with stale slot calendars still cannot book the same slot.
+    @Indexed(name = "doctor_slot", unique = true, sparse = true)
+    private String slotKey;
+
+    // Bumped on every write; a stale value makes the write fail instead of overwriting someone else's change.
+    @Version
+    private Long version;
+
 
 
     public String getId() { return id; }
@@ -58,4 +84,20 @@ public class Appointment implements Serializable  {
     public String getAppointmentTime() { return appointmentTime; }
     public void setAppointmentTime(String appointmentTime) { this.appointmentTime = appointmentTime; }
 
+    public LocalDateTime getAppointmentAt() { return appointmentAt; }
+    public void setAppointmentAt(LocalDateTime appointmentAt) { this.appointmentAt = appointmentAt; }
+
+    public String getSlotKey() { return slotKey; }
+    public void setSlotKey(String slotKey) { this.slotKey = slotKey; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    /**
+     * Parses the string date and time fields; throws {@link java.time.format.DateTimeParseException} if either is malformed.
+     */
+    public static LocalDateTime toDateTime(String appointmentDate, String appointmentTime) {
+        return LocalDateTime.of(LocalDate.parse(appointmentDate), LocalTime.parse(appointmentTime, TIME_FORMAT));
+    }
+
 }
\ No newline at end of file
@@ -22,6 +22,15 @@ public class CustomUserDetails implements UserDetails {
         this.authorities = authorities;
     }
 
+    /**
+     * Principal built from verified token claims alone; it carries no password.
+     */
+    public CustomUserDetails(String id, String username, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.authorities = authorities;
+    }
+
     public CustomUserDetails(Optional<User> userOptional, Collection<? extends GrantedAuthority> authorities) {
         if (userOptional.isPresent()) {
             User user = userOptional.get();
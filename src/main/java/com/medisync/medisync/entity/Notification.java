@@ -6,11 +6,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "notifications")
+@CompoundIndex(name = "recipient_timestamp_id", def = "{'recipientId': 1, 'timestamp': -1, '_id': -1}")
+@CompoundIndex(name = "read_timestamp", def = "{'isRead': 1, 'timestamp': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
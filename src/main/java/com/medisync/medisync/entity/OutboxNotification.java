@@ -0,0 +1,38 @@
+package com.medisync.medisync.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * A notification recorded alongside the write that caused it, waiting to be delivered in the background.
+ */
+@Document(collection = "notification_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxNotification {
+
+    @Id
+    private String id;
+
+    private String recipientId;
+    private String message;
+    private LocalDateTime createdAt;
+
+    private int attempts;
+
+    @Indexed
+    private Instant nextAttemptAt;
+    private String lockedBy;
+    private Instant lockedUntil;
+    private String lastError;
+}
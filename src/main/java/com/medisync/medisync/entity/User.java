@@ -10,10 +10,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NonNull;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users")
+@CompoundIndex(name = "role_username", def = "{'role': 1, 'username': 1}") // Doctor directory lookups and prefix search
 @Data
 public class User {
 
@@ -36,6 +39,9 @@ public class User {
     @Pattern(regexp = "^[0-9]{10}$", message = "Phone number must be exactly 10 digits")
     private String phoneNumber;
 
+    @Version
+    private Long version;
+
 
     public String getUsername() {
         return username;
@@ -76,4 +82,12 @@ public class User {
     public void setId(String id) {
         this.id = id;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
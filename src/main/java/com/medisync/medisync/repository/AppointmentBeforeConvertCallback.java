@@ -0,0 +1,30 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.Appointment;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keeps {@code appointmentAt} in step with the string date and time on every write path, and starts the
+ * version of documents written by bulk inserts, which do not initialise it.
+ */
+@Component
+public class AppointmentBeforeConvertCallback implements BeforeConvertCallback<Appointment> {
+
+    @Override
+    public Appointment onBeforeConvert(Appointment appointment, String collection) {
+        if (appointment.getAppointmentDate() != null && appointment.getAppointmentTime() != null) {
+            try {
+                appointment.setAppointmentAt(Appointment.toDateTime(appointment.getAppointmentDate(), appointment.getAppointmentTime()));
+            } catch (DateTimeParseException e) {
+                appointment.setAppointmentAt(null);
+            }
+        }
+        if (appointment.getVersion() == null) {
+            appointment.setVersion(0L);
+        }
+        return appointment;
+    }
+}
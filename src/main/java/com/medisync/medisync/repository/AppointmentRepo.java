@@ -1,18 +1,28 @@
 package com.medisync.medisync.repository;
 
 import com.medisync.medisync.entity.Appointment;
-import com.medisync.medisync.entity.User;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentRepo extends MongoRepository<Appointment,String> {
+public interface AppointmentRepo extends MongoRepository<Appointment,String>, AppointmentRepoCustom {
 
     List<Appointment> findByDoctorId(String doctorId);
 
     List<Appointment> findByPatientId(String patientId);
 
+    List<Appointment> findByDoctorIdAndAppointmentDate(String doctorId, String appointmentDate);
+
+    Stream<Appointment> streamAllBy();
+
+    List<Appointment> findByDoctorIdAndAppointmentAtBetween(String doctorId, Range<LocalDateTime> range, Sort sort);
+
+    List<Appointment> findByPatientIdAndAppointmentAtBetween(String patientId, Range<LocalDateTime> range, Sort sort);
 
 }
@@ -0,0 +1,25 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface AppointmentRepoCustom {
+
+    /**
+     * Keyset page ordered by id: returns up to {@code limit} appointments whose id is greater than
+     * {@code afterId} (or from the start when it is null). Null filters are ignored.
+     */
+    List<Appointment> findPage(String afterId, Status status, String doctorId, String appointmentDate, int limit);
+
+    /**
+     * Sets {@code changes} (field name to value) and bumps the version with one findAndModify, returning the
+     * updated appointment. Empty if there is no appointment {@code id}, or, when {@code expectedVersion} is
+     * given, if its version differs. A null value unsets the field. Write-time callbacks do not run, so derived
+     * fields must be in {@code changes}.
+     */
+    Optional<Appointment> patch(String id, Long expectedVersion, Map<String, Object> changes);
+}
@@ -0,0 +1,64 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class AppointmentRepoCustomImpl implements AppointmentRepoCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Appointment> findPage(String afterId, Status status, String doctorId, String appointmentDate, int limit) {
+        Query query = new Query();
+        if (afterId != null) {
+            if (!ObjectId.isValid(afterId)) {
+                throw new IllegalArgumentException("Invalid cursor: " + afterId);
+            }
+            query.addCriteria(Criteria.where("id").gt(new ObjectId(afterId)));
+        }
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        if (doctorId != null) {
+            query.addCriteria(Criteria.where("doctorId").is(doctorId));
+        }
+        if (appointmentDate != null) {
+            query.addCriteria(Criteria.where("appointmentDate").is(appointmentDate));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "id")).limit(limit);
+        return mongoTemplate.find(query, Appointment.class);
+    }
+
+    @Override
+    public Optional<Appointment> patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update();
+        // Null unsets, so sparse indexes such as the one on slotKey skip the document.
+        changes.forEach((field, value) -> {
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        });
+        update.inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Appointment.class));
+    }
+}
@@ -30,8 +30,10 @@ public class CustomUserDetailsServiceImp implements UserDetailsService {
             throw new UsernameNotFoundException("User Not Found with username: " + username);
         }
 
-        User user = userOptional.get();
+        return toUserDetails(userOptional.get());
+    }
 
+    public static CustomUserDetails toUserDetails(User user) {
         GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
 
         return new CustomUserDetails(user, Collections.singletonList(authority));
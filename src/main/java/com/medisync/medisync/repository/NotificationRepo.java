@@ -3,9 +3,7 @@ package com.medisync.medisync.repository;
 import com.medisync.medisync.entity.Notification;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.util.List;
+public interface NotificationRepo extends MongoRepository<Notification, String>, NotificationRepoCustom {
 
-public interface NotificationRepo extends MongoRepository<Notification, String> {
-
-    List<Notification> findByRecipientIdOrderByTimestampDesc(String recipientId);
+    long countByRecipientIdAndIsRead(String recipientId, boolean isRead);
 }
@@ -0,0 +1,33 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.Notification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationRepoCustom {
+
+    /**
+     * Newest-first notifications of a recipient strictly older than {@code (beforeTimestamp, beforeId)};
+     * both null for the first page.
+     */
+    List<Notification> findFeed(String recipientId, LocalDateTime beforeTimestamp, String beforeId, int limit);
+
+    /**
+     * Writes the notifications with one unordered bulk insert, skipping ids that already exist, and
+     * returns the ones that were newly written.
+     */
+    List<Notification> insertNew(List<Notification> notifications);
+
+    /**
+     * Marks the given notifications of {@code recipientId} read; returns how many were unread before.
+     */
+    long markRead(String recipientId, Collection<String> notificationIds);
+
+    /**
+     * Moves up to {@code limit} read notifications older than {@code cutoff} to {@code archiveCollection};
+     * returns how many were moved.
+     */
+    int archiveRead(LocalDateTime cutoff, String archiveCollection, int limit);
+}
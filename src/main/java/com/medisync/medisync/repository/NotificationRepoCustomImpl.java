@@ -0,0 +1,101 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.Notification;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class NotificationRepoCustomImpl implements NotificationRepoCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Notification> findFeed(String recipientId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("recipientId").is(recipientId);
+        if (beforeTimestamp != null) {
+            if (beforeId == null || !ObjectId.isValid(beforeId)) {
+                throw new IllegalArgumentException("Invalid cursor id: " + beforeId);
+            }
+            criteria.orOperator(
+                    Criteria.where("timestamp").lt(beforeTimestamp),
+                    Criteria.where("timestamp").is(beforeTimestamp).and("id").lt(new ObjectId(beforeId)));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class);
+    }
+
+    @Override
+    public List<Notification> insertNew(List<Notification> notifications) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class).insert(notifications).execute();
+            return notifications;
+        } catch (BulkOperationException e) {
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                throw e;
+            }
+            Set<Integer> duplicates = e.getErrors().stream().map(error -> error.getIndex()).collect(Collectors.toSet());
+            List<Notification> inserted = new ArrayList<>();
+            for (int i = 0; i < notifications.size(); i++) {
+                if (!duplicates.contains(i)) {
+                    inserted.add(notifications.get(i));
+                }
+            }
+            return inserted;
+        } catch (DuplicateKeyException e) {
+            return List.of();
+        }
+    }
+
+    @Override
+    public long markRead(String recipientId, Collection<String> notificationIds) {
+        Query unread = new Query(Criteria.where("id").in(notificationIds)
+                .and("recipientId").is(recipientId)
+                .and("isRead").is(false));
+        return mongoTemplate.updateMulti(unread, new Update().set("isRead", true), Notification.class).getModifiedCount();
+    }
+
+    @Override
+    public int archiveRead(LocalDateTime cutoff, String archiveCollection, int limit) {
+        Query expired = new Query(Criteria.where("isRead").is(true).and("timestamp").lt(cutoff))
+                .with(Sort.by("timestamp"))
+                .limit(limit);
+        List<Notification> batch = mongoTemplate.find(expired, Notification.class);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations archive = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class, archiveCollection);
+        archive.insert(batch);
+        try {
+            archive.execute();
+        } catch (BulkOperationException e) {
+            // Copies left behind by a run that stopped before deleting are fine to keep.
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == 11000)) {
+                throw e;
+            }
+        } catch (DuplicateKeyException e) {
+            // As above.
+        }
+
+        List<String> ids = batch.stream().map(Notification::getId).toList();
+        return (int) mongoTemplate.remove(new Query(Criteria.where("id").in(ids).and("isRead").is(true)), Notification.class)
+                .getDeletedCount();
+    }
+}
@@ -0,0 +1,7 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.OutboxNotification;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface OutboxNotificationRepo extends MongoRepository<OutboxNotification, String>, OutboxNotificationRepoCustom {
+}
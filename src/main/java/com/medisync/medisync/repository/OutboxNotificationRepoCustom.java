@@ -0,0 +1,20 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.OutboxNotification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxNotificationRepoCustom {
+
+    String DEAD_LETTER_COLLECTION = "notification_dead_letters";
+
+    /**
+     * Locks up to {@code limit} due entries for {@code owner} until {@code now + lease} and returns them.
+     * Entries locked by another owner whose lease has not run out are never returned.
+     */
+    List<OutboxNotification> claimBatch(String owner, Instant now, Duration lease, int limit);
+
+    void moveToDeadLetters(OutboxNotification entry);
+}
@@ -0,0 +1,50 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.OutboxNotification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxNotificationRepoCustomImpl implements OutboxNotificationRepoCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<OutboxNotification> claimBatch(String owner, Instant now, Duration lease, int limit) {
+        Criteria claimable = new Criteria().andOperator(
+                Criteria.where("nextAttemptAt").lte(now),
+                new Criteria().orOperator(Criteria.where("lockedUntil").is(null), Criteria.where("lockedUntil").lt(now)));
+
+        Query candidates = new Query(claimable).with(Sort.by("nextAttemptAt")).limit(limit);
+        candidates.fields().include("id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxNotification.class).stream()
+                .map(OutboxNotification::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Re-check the lock in the update so two instances never claim the same entry.
+        mongoTemplate.updateMulti(new Query(new Criteria().andOperator(Criteria.where("id").in(ids), claimable)),
+                new Update().set("lockedBy", owner).set("lockedUntil", now.plus(lease)),
+                OutboxNotification.class);
+        return mongoTemplate.find(new Query(Criteria.where("id").in(ids).and("lockedBy").is(owner)
+                .and("lockedUntil").gt(now)), OutboxNotification.class);
+    }
+
+    @Override
+    public void moveToDeadLetters(OutboxNotification entry) {
+        entry.setLockedBy(null);
+        entry.setLockedUntil(null);
+        mongoTemplate.save(entry, DEAD_LETTER_COLLECTION);
+        mongoTemplate.remove(new Query(Criteria.where("id").is(entry.getId())), OutboxNotification.class);
+    }
+}
@@ -0,0 +1,20 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.User;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the version of users written by bulk inserts, which do not initialise it.
+ */
+@Component
+public class UserBeforeConvertCallback implements BeforeConvertCallback<User> {
+
+    @Override
+    public User onBeforeConvert(User user, String collection) {
+        if (user.getVersion() == null) {
+            user.setVersion(0L);
+        }
+        return user;
+    }
+}
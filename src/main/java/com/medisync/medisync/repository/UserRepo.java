@@ -1,15 +1,25 @@
 package com.medisync.medisync.repository;
 
+import com.medisync.medisync.dto.DoctorSummary;
+import com.medisync.medisync.entity.Role;
 import com.medisync.medisync.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepo extends MongoRepository<User, String> {
+public interface UserRepo extends MongoRepository<User, String>, UserRepoCustom {
 
     Optional<User> findByUsername(String username);
 
+    List<DoctorSummary> findByRole(Role role, Pageable pageable);
+
+    List<DoctorSummary> findByRoleAndUsernameStartingWith(Role role, String usernamePrefix, Pageable pageable);
+
+    Stream<User> streamAllBy();
 
 }
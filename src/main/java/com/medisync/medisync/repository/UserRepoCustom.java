@@ -0,0 +1,16 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.User;
+
+import java.util.Map;
+import java.util.Optional;
+
+public interface UserRepoCustom {
+
+    /**
+     * Sets {@code changes} (field name to value) and bumps the version with one findAndModify, returning the
+     * updated user. Empty if there is no user {@code id}, or, when {@code expectedVersion} is given, if its
+     * version differs.
+     */
+    Optional<User> patch(String id, Long expectedVersion, Map<String, Object> changes);
+}
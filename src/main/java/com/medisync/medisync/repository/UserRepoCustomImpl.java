@@ -0,0 +1,31 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepoCustomImpl implements UserRepoCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<User> patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update();
+        changes.forEach(update::set);
+        update.inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+}
@@ -0,0 +1,13 @@
+package com.medisync.medisync.security;
+
+import java.util.Date;
+
+/**
+ * The parts of a verified token the request path needs, parsed once per token.
+ */
+public record JwtClaims(String subject, String userId, String role, String tokenId, Date issuedAt, Date expiration) {
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
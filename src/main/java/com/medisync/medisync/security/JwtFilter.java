@@ -1,17 +1,26 @@
 package com.medisync.medisync.security;
 
+import com.medisync.medisync.entity.CustomUserDetails;
 import com.medisync.medisync.repository.CustomUserDetailsServiceImp;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
+@Slf4j
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
@@ -21,6 +30,19 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsServiceImp userDetailsService;
 
+    @Autowired
+    private RevokedUserRegistry revokedUserRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    // When enabled, tokens that carry a user id are trusted without loading the user.
+    @Value("${jwt.stateless-auth:false}")
+    private boolean statelessAuth;
+
     public JwtFilter(JwtUtil jwtUtil, CustomUserDetailsServiceImp userDetailsService) {
     }
 
@@ -30,25 +52,44 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
+        JwtClaims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwtToken = authHeader.substring(7);
-            username = jwtUtil.extractUsername(jwtToken);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "valid";
+            try {
+                claims = jwtUtil.verify(authHeader.substring(7)); // Signature and expiry are checked here, once
+            } catch (JwtException | IllegalArgumentException e) {
+                outcome = "invalid";
+                log.debug("Rejected JWT: {}", e.getMessage());
+            } finally {
+                sample.stop(meterRegistry.timer("jwt.verification", "outcome", outcome));
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username); // Load user details
-
+        if (claims != null && claims.tokenId() != null && tokenRevocationList.isRevoked(claims.tokenId())) {
+            log.debug("Rejected revoked JWT {}", claims.tokenId());
+            claims = null;
+        }
 
-            if (jwtUtil.validateToken(jwtToken, userDetails.getUsername())) {
+        if (claims != null && claims.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails;
+            if (statelessAuth && claims.userId() != null && claims.role() != null) {
+                if (revokedUserRegistry.isRevoked(claims.userId(), claims.issuedAt())) {
+                    log.debug("Rejected revoked JWT for user ID: {}", claims.userId());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                userDetails = new CustomUserDetails(claims.userId(), claims.subject(),
+                        Collections.singletonList(new SimpleGrantedAuthority(claims.role())));
+            } else {
+                userDetails = userDetailsService.loadUserByUsername(claims.subject()); // Load user details
+            }
 
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response); // Continue the filter chain
@@ -1,11 +1,17 @@
 
 package com.medisync.medisync.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value; // Import @Value
 import org.springframework.stereotype.Component;
 
@@ -13,6 +19,8 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -26,33 +34,108 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long EXPIRATION_TIME;
 
-    private Key getSigningKey() {
-
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private Cache<String, JwtClaims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        if (verifiedCacheSize > 0) {
+            // Entries live no longer than the token they describe.
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheSize)
+                    .expireAfter(new Expiry<String, JwtClaims>() {
+                        @Override
+                        public long expireAfterCreate(String token, JwtClaims claims, long currentTime) {
+                            long millisLeft = claims.expiration() != null
+                                    ? claims.expiration().getTime() - System.currentTimeMillis()
+                                    : EXPIRATION_TIME;
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String token, JwtClaims claims, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+
+                        @Override
+                        public long expireAfterRead(String token, JwtClaims claims, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
     }
 
     public String generateToken(String username, String role) {
+        return generateToken(username, role, null);
+    }
+
+    /**
+     * Includes the user's Mongo id as the {@code uid} claim so the token alone is enough to build a principal,
+     * and a random {@code jti} so the token can be revoked on its own.
+     */
+    public String generateToken(String username, String role, String userId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
+        if (userId != null) {
+            claims.put("uid", userId);
+        }
         return createToken(claims, username);
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
+        // iat has second precision; the exact issue time lets a revocation spare tokens issued right after it.
+        claims.put("iat_ms", now);
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_TIME))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of a token exactly once and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims verify(String token) {
+        if (verifiedTokens != null) {
+            JwtClaims cached = verifiedTokens.getIfPresent(token);
+            if (cached != null) {
+                if (cached.isExpired()) {
+                    verifiedTokens.invalidate(token);
+                    throw new ExpiredJwtException(null, null, "JWT expired at " + cached.expiration());
+                }
+                return cached;
+            }
+        }
+        Claims claims = extractAllClaims(token);
+        Long issuedAtMillis = claims.get("iat_ms", Long.class);
+        JwtClaims verified = new JwtClaims(claims.getSubject(), claims.get("uid", String.class),
+                claims.get("role", String.class), claims.getId(),
+                issuedAtMillis != null ? new Date(issuedAtMillis) : claims.getIssuedAt(), claims.getExpiration());
+        if (verifiedTokens != null) {
+            verifiedTokens.put(token, verified);
+        }
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).expiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -61,21 +144,15 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
-
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final JwtClaims claims = verify(token);
+        return (claims.subject().equals(username) && !claims.isExpired());
     }
 
     public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
-        return (String) claims.get("role");
+        return verify(token).role();
     }
 }
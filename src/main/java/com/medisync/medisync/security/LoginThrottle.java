@@ -0,0 +1,102 @@
+package com.medisync.medisync.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts login attempts per username and per client address in fixed windows kept in Redis, so every
+ * instance sees the same counts. An attempt is counted with one atomic increment before the password is
+ * checked, so a concurrent burst cannot get more than the limit through. A successful login clears its
+ * username's count and takes itself off the address count, so both end up counting failures; the address
+ * count runs out with the window. While Redis is unreachable the counts are kept in memory on each
+ * instance instead. Every Redis call touches a single key, so the throttle also works against Redis Cluster.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final String USERNAME_KEY = "login:failures:user:";
+    private static final String ADDRESS_KEY = "login:failures:ip:";
+
+    // Counts an attempt against one key, starting its window with its first attempt. The username and address
+    // keys are counted with separate calls so that no call spans two keys, which Redis Cluster would reject
+    // with CROSSSLOT when they hash to different slots.
+    private static final RedisScript<Long> COUNT_SCRIPT = new DefaultRedisScript<>(
+            "local count = redis.call('INCR', KEYS[1]) " +
+            "if count == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end " +
+            "return count", Long.class);
+
+    private static final RedisScript<Long> UNCOUNT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('DECR', KEYS[1]) end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int maxPerUsername;
+    private final int maxPerAddress;
+    private final Duration window;
+    private final Cache<String, AtomicInteger> localFailures;
+
+    public LoginThrottle(StringRedisTemplate redisTemplate,
+                         @Value("${login.throttle.max-per-username:5}") int maxPerUsername,
+                         @Value("${login.throttle.max-per-address:50}") int maxPerAddress,
+                         @Value("${login.throttle.window:15m}") Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.maxPerUsername = maxPerUsername;
+        this.maxPerAddress = maxPerAddress;
+        this.window = window;
+        this.localFailures = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Counts an attempt and returns whether it is within the limits. Call it before checking the password.
+     */
+    public boolean tryAcquire(String username, String address) {
+        String usernameKey = USERNAME_KEY + username;
+        String addressKey = ADDRESS_KEY + address;
+        try {
+            Long usernameCount = redisTemplate.execute(COUNT_SCRIPT, List.of(usernameKey), String.valueOf(window.toMillis()));
+            Long addressCount = redisTemplate.execute(COUNT_SCRIPT, List.of(addressKey), String.valueOf(window.toMillis()));
+            if (usernameCount != null && addressCount != null) {
+                return usernameCount <= maxPerUsername && addressCount <= maxPerAddress;
+            }
+        } catch (Exception e) {
+            log.warn("Could not count login attempt, counting locally: {}", e.getMessage());
+        }
+        int usernameCount = localFailures.get(usernameKey, key -> new AtomicInteger()).incrementAndGet();
+        int addressCount = localFailures.get(addressKey, key -> new AtomicInteger()).incrementAndGet();
+        return usernameCount <= maxPerUsername && addressCount <= maxPerAddress;
+    }
+
+    public void recordSuccess(String username, String address) {
+        String usernameKey = USERNAME_KEY + username;
+        String addressKey = ADDRESS_KEY + address;
+        localFailures.invalidate(usernameKey);
+        AtomicInteger addressCount = localFailures.getIfPresent(addressKey);
+        if (addressCount != null) {
+            addressCount.decrementAndGet();
+        }
+        try {
+            redisTemplate.delete(usernameKey);
+            redisTemplate.execute(UNCOUNT_SCRIPT, List.of(addressKey));
+        } catch (Exception e) {
+            log.warn("Could not clear login failures for {}: {}", username, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.medisync.medisync.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt checks on a small bounded pool of their own, so a burst of logins queues here instead of
+ * occupying request threads and every core. When the queue is full the check completes exceptionally with
+ * {@link RejectedExecutionException}.
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    // Checked against when the user does not exist, so unknown usernames take as long as wrong passwords.
+    private final String unknownUserHash;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            @Value("${login.hashing.threads:0}") int threads, // 0: half the available processors
+                            @Value("${login.hashing.queue-capacity:100}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.unknownUserHash = passwordEncoder.encode("unknown-user");
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        log.info("Password verification pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Whether {@code rawPassword} matches {@code encodedPassword}; a {@code null} hash (no such user) never
+     * matches but still costs one BCrypt check.
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        String rawOrEmpty = rawPassword != null ? rawPassword : "";
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (encodedPassword == null) {
+                    passwordEncoder.matches(rawOrEmpty, unknownUserHash);
+                    return false;
+                }
+                return passwordEncoder.matches(rawOrEmpty, encodedPassword);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,85 @@
+package com.medisync.medisync.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Opaque, single-use refresh tokens kept in Redis under a hash of the token. Redeeming one deletes it
+ * atomically, so each refresh must present the token issued by the previous one. Revoking a user makes
+ * every refresh token issued to them before that moment unusable.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final String TOKEN_KEY = "auth:refresh:";
+    private static final String NOT_BEFORE_KEY = "auth:refresh-not-before:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration lifetime;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenStore(StringRedisTemplate redisTemplate,
+                             @Value("${jwt.refresh-expiration:14d}") Duration lifetime) {
+        this.redisTemplate = redisTemplate;
+        this.lifetime = lifetime;
+    }
+
+    public String issue(String userId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        redisTemplate.opsForValue().set(TOKEN_KEY + hash(token), userId + "|" + System.currentTimeMillis(), lifetime);
+        return token;
+    }
+
+    /**
+     * Consumes the token and returns the user it was issued to, or empty if it is unknown, expired,
+     * already used or issued before the user was revoked.
+     */
+    public Optional<String> redeem(String token) {
+        String value = redisTemplate.opsForValue().getAndDelete(TOKEN_KEY + hash(token));
+        if (value == null) {
+            return Optional.empty();
+        }
+        String[] parts = value.split("\\|", 2);
+        String notBefore = redisTemplate.opsForValue().get(NOT_BEFORE_KEY + parts[0]);
+        if (notBefore != null && Long.parseLong(parts[1]) < Long.parseLong(notBefore)) {
+            log.info("Rejected refresh token issued before revocation for user ID: {}", parts[0]);
+            return Optional.empty();
+        }
+        return Optional.of(parts[0]);
+    }
+
+    public void discard(String token) {
+        redisTemplate.delete(TOKEN_KEY + hash(token));
+    }
+
+    public void revokeAll(String userId) {
+        try {
+            redisTemplate.opsForValue().set(NOT_BEFORE_KEY + userId, String.valueOf(System.currentTimeMillis()), lifetime);
+        } catch (Exception e) {
+            log.error("Failed to revoke refresh tokens for user ID {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.medisync.medisync.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist for claims-only authentication: tokens issued to a user before that user was deleted or had
+ * their role, username or password changed are rejected without a database read.
+ * <p>
+ * Each revocation is stored in Redis as a per-user not-before timestamp that expires with the last token it
+ * could affect, indexed by a sorted set so it can be listed without a key scan. Instances keep a local copy,
+ * fed by pub/sub and reloaded from Redis on startup and whenever the listener container (re)subscribes, so
+ * a revocation published while an instance was down or disconnected is not missed.
+ */
+@Slf4j
+@Component
+public class RevokedUserRegistry implements MessageListener, SubscriptionListener {
+
+    public static final String CHANNEL = "medisync:user-revocations";
+    private static final String NOT_BEFORE_KEY = "auth:access-not-before:";
+    private static final String REVOKED_KEY = "auth:revoked-users";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long tokenLifetimeMillis;
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public RevokedUserRegistry(StringRedisTemplate redisTemplate, @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.redisTemplate = redisTemplate;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    public void revoke(String userId) {
+        long now = System.currentTimeMillis();
+        record(userId, now);
+        try {
+            redisTemplate.opsForValue().set(NOT_BEFORE_KEY + userId, String.valueOf(now), Duration.ofMillis(tokenLifetimeMillis));
+            redisTemplate.opsForZSet().add(REVOKED_KEY, userId, now);
+        } catch (Exception e) {
+            log.error("Failed to store token revocation for user ID {}: {}", userId, e.getMessage());
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, userId + "|" + now);
+        } catch (Exception e) {
+            log.warn("Failed to publish token revocation for user ID {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a token issued to the user at {@code issuedAt} predates the user's latest revocation. Tokens
+     * carry their issue time to the millisecond, so one issued right after a revocation is accepted.
+     */
+    public boolean isRevoked(String userId, Date issuedAt) {
+        Long revokedAtMillis = revokedAt.get(userId);
+        if (revokedAtMillis == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() < revokedAtMillis;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length == 2) {
+            record(parts[0], Long.parseLong(parts[1]));
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        // Called on the subscription's I/O thread, which must not block on other Redis calls.
+        CompletableFuture.runAsync(this::reload);
+    }
+
+    /**
+     * Merges every unexpired revocation stored in Redis into the local copy. Revocations are never undone,
+     * so merging cannot drop one that arrived over pub/sub while the reload was reading.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        try {
+            long cutoff = System.currentTimeMillis() - tokenLifetimeMillis;
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, cutoff);
+            Set<String> userIds = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, cutoff, Double.POSITIVE_INFINITY);
+            if (userIds == null || userIds.isEmpty()) {
+                return;
+            }
+            List<String> ids = new ArrayList<>(userIds);
+            List<String> notBefore = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> NOT_BEFORE_KEY + id).toList());
+            for (int i = 0; i < ids.size(); i++) {
+                if (notBefore != null && notBefore.get(i) != null) {
+                    record(ids.get(i), Long.parseLong(notBefore.get(i)));
+                }
+            }
+            log.debug("Reloaded {} user revocations", ids.size());
+        } catch (Exception e) {
+            log.warn("Could not reload user revocations: {}", e.getMessage());
+        }
+    }
+
+    private void record(String userId, long at) {
+        revokedAt.merge(userId, at, Math::max);
+        long cutoff = System.currentTimeMillis() - tokenLifetimeMillis;
+        revokedAt.values().removeIf(time -> time < cutoff);
+    }
+}
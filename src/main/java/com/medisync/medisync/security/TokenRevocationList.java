@@ -0,0 +1,143 @@
+package com.medisync.medisync.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids of access tokens revoked before they expire (e.g. at logout), kept in a Redis sorted set scored by
+ * token expiry. Each instance mirrors the set into a local Bloom filter, fed by pub/sub and rebuilt
+ * periodically, so the common not-revoked case costs no network call; only filter hits are confirmed
+ * against Redis. If Redis cannot confirm a hit, the token is treated as revoked.
+ * <p>
+ * Revocations published while the subscription is down are never delivered, so the filter is also rebuilt
+ * whenever the listener container (re)subscribes to {@link #CHANNEL}. A token revoked during a reconnect is
+ * therefore accepted at most until the resubscription's rebuild completes; the periodic rebuild only bounds
+ * the window for a message lost without a reconnect, to {@code jwt.revocation.rebuild-interval}.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList implements MessageListener, SubscriptionListener {
+
+    public static final String CHANNEL = "medisync:token-revocations";
+    private static final String REVOKED_KEY = "auth:revoked-tokens";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long expectedSize;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile BloomFilter filter;
+    // Receives revocations that arrive while a rebuild is reading Redis, so the new filter cannot miss them.
+    private volatile BloomFilter rebuilding;
+
+    public TokenRevocationList(StringRedisTemplate redisTemplate,
+                               @Value("${jwt.revocation.expected-size:100000}") long expectedSize,
+                               @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                               @Value("${jwt.revocation.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.redisTemplate = redisTemplate;
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.filter = new BloomFilter(expectedSize, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        executor.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public void revoke(String tokenId, Date expiresAt) {
+        add(tokenId);
+        try {
+            redisTemplate.opsForZSet().add(REVOKED_KEY, tokenId, expiresAt.getTime());
+            redisTemplate.convertAndSend(CHANNEL, tokenId);
+        } catch (Exception e) {
+            log.error("Failed to store revocation of token {}: {}", tokenId, e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        try {
+            return redisTemplate.opsForZSet().score(REVOKED_KEY, tokenId) != null;
+        } catch (Exception e) {
+            log.warn("Could not confirm revocation of token {}, rejecting it: {}", tokenId, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        try {
+            executor.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            log.debug("Not rebuilding token revocation filter after resubscribe: shutting down");
+        }
+    }
+
+    /**
+     * Drops expired ids from Redis and replaces the filter with one holding exactly the remaining ones.
+     */
+    void rebuild() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, now);
+            Long size = redisTemplate.opsForZSet().zCard(REVOKED_KEY);
+            BloomFilter next = new BloomFilter(Math.max(expectedSize, size != null ? size * 2 : 0), falsePositiveRate);
+            rebuilding = next;
+            Set<String> revoked = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+            if (revoked != null) {
+                revoked.forEach(next::put);
+            }
+            filter = next;
+            rebuilding = null;
+            log.debug("Rebuilt token revocation filter with {} ids", revoked != null ? revoked.size() : 0);
+        } catch (Exception e) {
+            rebuilding = null;
+            log.warn("Could not rebuild token revocation filter: {}", e.getMessage());
+        }
+    }
+
+    private void add(String tokenId) {
+        filter.put(tokenId);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(tokenId);
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package com.medisync.medisync.service;
 
+import com.medisync.medisync.cache.AppointmentCacheInvalidator;
+import com.medisync.medisync.dto.AppointmentPage;
 import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Notification;
+import com.medisync.medisync.entity.Status;
 import com.medisync.medisync.entity.User;
 import com.medisync.medisync.repository.AppointmentRepo;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -23,82 +37,230 @@ public class AppointmentService {
     private final AppointmentRepo appointmentRepo;
     private final UserService userService;
     private final NotificationService notificationService;
+    private final SlotCalendarService slotCalendarService;
+    private final AppointmentCacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
 
+    private static final Sort SCHEDULE_ORDER = Sort.by("appointmentAt");
+
+    /**
+     * Saves the appointment and records its booking notifications in the outbox in one transaction, so a
+     * failed outbox write leaves no booking behind. The slot and caches are only updated once it committed.
+     */
     @CachePut(value = "appointments", key = "#result.id")
-    @CacheEvict(value = "allAppointments", allEntries = true)
-    @Transactional
     public Appointment saveApp(Appointment appointment) {
-        log.info("Saving appointment for patient ID: {} with doctor ID: {}", appointment.getPatientId(), appointment.getDoctorId());
+        log.debug("Saving appointment for patient ID: {} with doctor ID: {}", appointment.getPatientId(), appointment.getDoctorId());
+
+        // Updates may move an appointment to another patient or doctor, whose cached lists must go too.
+        Appointment previous = appointment.getId() != null ? appointmentRepo.findById(appointment.getId()).orElse(null) : null;
+        List<Notification> notifications = bookingNotifications(appointment);
 
-        Appointment savedAppointment = appointmentRepo.save(appointment);
+        SlotCalendarService.Slot reservedSlot = slotCalendarService.reserve(appointment);
+        Appointment savedAppointment;
+        try {
+            savedAppointment = transactionTemplate.execute(status -> {
+                Appointment saved = appointmentRepo.save(appointment);
+                notificationService.queueNotifications(notifications);
+                return saved;
+            });
+        } catch (DuplicateKeyException e) {
+            slotCalendarService.release(reservedSlot);
+            throw slotCalendarService.conflict(appointment);
+        } catch (RuntimeException e) {
+            slotCalendarService.release(reservedSlot);
+            throw e;
+        }
+        slotCalendarService.commit(savedAppointment);
+        cacheInvalidator.onSaved(previous, savedAppointment);
         log.info("Appointment saved with ID: {}", savedAppointment.getId());
 
-        String patientMessage = "Your appointment with " + getDoctorName(savedAppointment.getDoctorId()) + " has been booked for " + savedAppointment.getAppointmentDate();
-        notificationService.sendNotification(savedAppointment.getPatientId(), patientMessage);
+        return savedAppointment;
+    }
+
+    /**
+     * Writes the non-blank fields of {@code changes} with a single findAndModify and returns the updated
+     * appointment, or empty if it does not exist. When {@code changes} carries a version, the write only
+     * applies to that version. Moving the appointment to another slot, patient or doctor, or back into a
+     * slot-holding status, reads it first to claim the slot and find the caches to evict; that read's version
+     * then guards the write. Throws {@link OptimisticLockingFailureException} if the appointment changed in
+     * between and {@link SlotConflictException} if the new slot is taken. Booking notifications are only sent
+     * when the patch claims a slot the appointment did not hold, and cancellation notifications when it sets
+     * {@code CANCELLED}; either way they share the write's transaction.
+     */
+    @CachePut(value = "appointments", key = "#id", unless = "#result == null")
+    public Optional<Appointment> patchApp(String id, Appointment changes) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        putIfPresent(fields, "patientId", changes.getPatientId());
+        putIfPresent(fields, "doctorId", changes.getDoctorId());
+        putIfPresent(fields, "reason", changes.getReason());
+        putIfPresent(fields, "appointmentDate", changes.getAppointmentDate());
+        putIfPresent(fields, "appointmentTime", changes.getAppointmentTime());
+        if (changes.getStatus() != null) {
+            fields.put("status", changes.getStatus());
+        }
+        if (fields.isEmpty()) {
+            return appointmentRepo.findById(id);
+        }
 
-        String doctorMessage = "A new appointment has been booked with patient " + getPatientName(savedAppointment.getPatientId()) + " on " + savedAppointment.getAppointmentDate();
-        notificationService.sendNotification(savedAppointment.getDoctorId(), doctorMessage);
+        Long expectedVersion = changes.getVersion();
+        Appointment previous = null;
+        SlotCalendarService.Slot reservedSlot = null;
+        boolean claimsNewSlot = false;
+        boolean moves = fields.containsKey("patientId") || fields.containsKey("doctorId")
+                || fields.containsKey("appointmentDate") || fields.containsKey("appointmentTime")
+                || (changes.getStatus() != null && slotCalendarService.holdsSlot(changes.getStatus()));
+        if (moves) {
+            previous = appointmentRepo.findById(id).orElse(null);
+            if (previous == null) {
+                return Optional.empty();
+            }
+            if (expectedVersion != null && !expectedVersion.equals(previous.getVersion())) {
+                throw new OptimisticLockingFailureException("Appointment " + id + " was modified concurrently");
+            }
+            expectedVersion = previous.getVersion();
+            Appointment target = withChanges(previous, fields);
+            if (fields.containsKey("appointmentDate") || fields.containsKey("appointmentTime")) {
+                fields.put("appointmentAt", appointmentAt(target));
+            }
+            reservedSlot = slotCalendarService.reserve(target);
+            fields.put("slotKey", target.getSlotKey());
+            claimsNewSlot = claimsNewSlot(previous, target);
+        } else if (fields.containsKey("status")) {
+            fields.put("slotKey", null);
+        }
 
-        return savedAppointment;
+        Long guard = expectedVersion;
+        boolean booked = claimsNewSlot;
+        boolean cancelled = changes.getStatus() == Status.CANCELLED;
+        Optional<Appointment> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Optional<Appointment> patched = appointmentRepo.patch(id, guard, fields);
+                if (patched.isPresent() && (booked || cancelled)) {
+                    notificationService.queueNotifications(booked
+                            ? bookingNotifications(patched.get())
+                            : cancellationNotifications(patched.get()));
+                }
+                return patched;
+            });
+        } catch (DuplicateKeyException e) {
+            slotCalendarService.release(reservedSlot);
+            throw slotCalendarService.conflict(withChanges(previous, fields));
+        } catch (RuntimeException e) {
+            slotCalendarService.release(reservedSlot);
+            throw e;
+        }
+        if (saved.isEmpty()) {
+            slotCalendarService.release(reservedSlot);
+            if (expectedVersion != null && appointmentRepo.existsById(id)) {
+                throw new OptimisticLockingFailureException("Appointment " + id + " was modified concurrently");
+            }
+            return saved;
+        }
+        slotCalendarService.commit(saved.get());
+        cacheInvalidator.onSaved(previous, saved.get());
+        log.info("Appointment {} updated: {}", id, fields.keySet());
+        return saved;
     }
 
-    @Cacheable(value = "allAppointments", key = "'all'")
-    public List<Appointment> findAllApp() {
-        log.info("Fetching all appointments.");
-        List<Appointment> appointments = appointmentRepo.findAll();
-        log.info("Total appointments found: {}", appointments.size());
-        return appointments;
+    /**
+     * The notifications telling the patient and the doctor about a booked appointment.
+     */
+    public List<Notification> bookingNotifications(Appointment appointment) {
+        String patientMessage = "Your appointment with " + getDoctorName(appointment.getDoctorId()) + " has been booked for " + appointment.getAppointmentDate();
+        String doctorMessage = "A new appointment has been booked with patient " + getPatientName(appointment.getPatientId()) + " on " + appointment.getAppointmentDate();
+        return List.of(
+                Notification.builder().recipientId(appointment.getPatientId()).message(patientMessage).build(),
+                Notification.builder().recipientId(appointment.getDoctorId()).message(doctorMessage).build());
+    }
+
+    /**
+     * The notifications telling the patient and the doctor that an appointment was cancelled.
+     */
+    public List<Notification> cancellationNotifications(Appointment appointment) {
+        String patientMessage = "Your appointment with " + getDoctorName(appointment.getDoctorId()) + " on " + appointment.getAppointmentDate() + " has been cancelled";
+        String doctorMessage = "The appointment with patient " + getPatientName(appointment.getPatientId()) + " on " + appointment.getAppointmentDate() + " has been cancelled";
+        return List.of(
+                Notification.builder().recipientId(appointment.getPatientId()).message(patientMessage).build(),
+                Notification.builder().recipientId(appointment.getDoctorId()).message(doctorMessage).build());
+    }
+
+    /**
+     * Whether {@code target} takes a slot that {@code previous} did not already hold.
+     */
+    private boolean claimsNewSlot(Appointment previous, Appointment target) {
+        return target.getSlotKey() != null && !(slotCalendarService.holdsSlot(previous.getStatus())
+                && Objects.equals(previous.getDoctorId(), target.getDoctorId())
+                && Objects.equals(previous.getAppointmentDate(), target.getAppointmentDate())
+                && Objects.equals(previous.getAppointmentTime(), target.getAppointmentTime()));
+    }
+
+    /**
+     * Unpaged fallback backed by a Mongo cursor; the caller must close the stream.
+     */
+    public Stream<Appointment> streamAllApp() {
+        log.debug("Streaming all appointments.");
+        return appointmentRepo.streamAllBy();
     }
 
-    @Cacheable(value = "appointments", key = "#id")
+    @Cacheable(value = "appointmentPages", key = "@appointmentCacheInvalidator.pageGeneration(#doctorId) + ':' + #cursor + ':' + #limit + ':' + #status + ':' + #doctorId + ':' + #date", sync = true)
+    public AppointmentPage findAppPage(String cursor, int limit, Status status, String doctorId, String date) {
+        log.debug("Fetching appointment page after cursor: {} (limit {})", cursor, limit);
+        List<Appointment> appointments = appointmentRepo.findPage(cursor, status, doctorId, date, limit + 1);
+        if (appointments.size() > limit) {
+            List<Appointment> content = new ArrayList<>(appointments.subList(0, limit));
+            return new AppointmentPage(content, content.get(limit - 1).getId());
+        }
+        return new AppointmentPage(appointments, null);
+    }
+
+    @Cacheable(value = "appointments", key = "#id", sync = true)
     public Optional<Appointment> findAppById(String id) {
-        log.info("Fetching appointment by ID: {}", id);
+        log.debug("Fetching appointment by ID: {}", id);
         Optional<Appointment> appointment = appointmentRepo.findById(id);
         if (appointment.isPresent()) {
-            log.info("Appointment found with ID: {}", id);
+            log.debug("Appointment found with ID: {}", id);
         } else {
             log.warn("Appointment not found with ID: {}", id);
         }
         return appointment;
     }
 
-    @CacheEvict(value = {"appointments", "allAppointments"}, allEntries = true)
     public void deleteAppById(String id) {
         log.info("Deleting appointment by ID: {}", id);
+        Optional<Appointment> existing = appointmentRepo.findById(id);
         appointmentRepo.deleteById(id);
+        slotCalendarService.release(id);
+        existing.ifPresent(cacheInvalidator::onDeleted);
         log.info("Appointment deleted successfully.");
     }
 
-    @Cacheable(value = "patientAppointments", key = "#username")
-    public List<Appointment> getAppointmentsForPatient(String username) {
-        log.info("Fetching appointments for patient: {}", username);
-        Optional<User> userOptional = userService.findByUsername(username);
+    // Keyed by the user's Mongo id, which is what an appointment records, so writes can evict precisely.
+    @Cacheable(value = "patientAppointments", key = "#patientId", sync = true)
+    public List<Appointment> getAppointmentsForPatient(String patientId) {
+        log.debug("Fetching appointments for patient ID: {}", patientId);
+        List<Appointment> appointments = appointmentRepo.findByPatientId(patientId);
+        log.debug("Found {} appointments for patient ID: {}", appointments.size(), patientId);
+        return appointments;
+    }
 
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            List<Appointment> appointments = appointmentRepo.findByPatientId(user.getId());
-            log.info("Found {} appointments for patient: {}", appointments.size(), username);
-            return appointments;
-        } else {
-            log.warn("Patient user not found for username: {}", username);
-            return List.of();
-        }
+    @Cacheable(value = "doctorAppointments", key = "#doctorId", sync = true)
+    public List<Appointment> getAppointmentsForDoctor(String doctorId) {
+        log.debug("Fetching appointments for doctor ID: {}", doctorId);
+        List<Appointment> appointments = appointmentRepo.findByDoctorId(doctorId);
+        log.debug("Found {} appointments for doctor ID: {}", appointments.size(), doctorId);
+        return appointments;
     }
 
-    @Cacheable(value = "doctorAppointments", key = "#username")
-    public List<Appointment> getAppointmentsForDoctor(String username) {
-        log.info("Fetching appointments for doctor: {}", username);
-        Optional<User> userOptional = userService.findByUsername(username);
+    /**
+     * Appointments of a doctor in {@code [from, to)}, in time order, answered from the doctor_at index.
+     */
+    public List<Appointment> getDoctorSchedule(String doctorId, LocalDateTime from, LocalDateTime to) {
+        return appointmentRepo.findByDoctorIdAndAppointmentAtBetween(doctorId, Range.rightOpen(from, to), SCHEDULE_ORDER);
+    }
 
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            List<Appointment> appointments = appointmentRepo.findByDoctorId(user.getId());
-            log.info("Found {} appointments for doctor: {}", appointments.size(), username);
-            return appointments;
-        } else {
-            log.warn("Doctor user not found for username: {}", username);
-            return List.of();
-        }
+    public List<Appointment> getPatientSchedule(String patientId, LocalDateTime from, LocalDateTime to) {
+        return appointmentRepo.findByPatientIdAndAppointmentAtBetween(patientId, Range.rightOpen(from, to), SCHEDULE_ORDER);
     }
 
     private String getDoctorName(String doctorId) {
@@ -112,4 +274,31 @@ public class AppointmentService {
                 .map(User::getUsername)
                 .orElse("Patient");
     }
-}
\ No newline at end of file
+
+    private static void putIfPresent(Map<String, Object> fields, String name, String value) {
+        if (value != null && !value.isBlank()) {
+            fields.put(name, value);
+        }
+    }
+
+    private static Appointment withChanges(Appointment appointment, Map<String, Object> fields) {
+        Appointment target = new Appointment();
+        target.setId(appointment.getId());
+        target.setPatientId((String) fields.getOrDefault("patientId", appointment.getPatientId()));
+        target.setDoctorId((String) fields.getOrDefault("doctorId", appointment.getDoctorId()));
+        target.setReason((String) fields.getOrDefault("reason", appointment.getReason()));
+        target.setStatus((Status) fields.getOrDefault("status", appointment.getStatus()));
+        target.setAppointmentDate((String) fields.getOrDefault("appointmentDate", appointment.getAppointmentDate()));
+        target.setAppointmentTime((String) fields.getOrDefault("appointmentTime", appointment.getAppointmentTime()));
+        return target;
+    }
+
+    // Same rule as AppointmentBeforeConvertCallback, which findAndModify does not run.
+    private static LocalDateTime appointmentAt(Appointment appointment) {
+        try {
+            return Appointment.toDateTime(appointment.getAppointmentDate(), appointment.getAppointmentTime());
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Appointment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-off migration that fills {@code appointmentAt} on appointments written before the field existed.
+ * Reads through a cursor and writes unordered bulk updates in batches, so memory stays flat; documents
+ * that already have the field are never read, which makes re-running it cheap. Documents whose date or
+ * time cannot be parsed get an explicit {@code null}, so they are logged once rather than scanned again on
+ * every startup.
+ */
+@Slf4j
+@Component
+public class AppointmentTimeBackfill {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public AppointmentTimeBackfill(MongoTemplate mongoTemplate,
+                                   @Value("${appointment.backfill.enabled:true}") boolean enabled,
+                                   @Value("${appointment.backfill.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    /**
+     * Returns the number of documents written, including the ones marked unparseable.
+     */
+    public long backfill() {
+        Query missing = new Query(Criteria.where("appointmentAt").exists(false));
+        missing.fields().include("appointmentDate").include("appointmentTime");
+        missing.cursorBatchSize(batchSize);
+
+        long updated = 0;
+        long skipped = 0;
+        List<Pair<Query, UpdateDefinition>> batch = new ArrayList<>(batchSize);
+        try (Stream<Appointment> appointments = mongoTemplate.stream(missing, Appointment.class)) {
+            for (Appointment appointment : (Iterable<Appointment>) appointments::iterator) {
+                Query byId = new Query(Criteria.where("id").is(appointment.getId()));
+                try {
+                    batch.add(Pair.of(byId, new Update().set("appointmentAt",
+                            Appointment.toDateTime(appointment.getAppointmentDate(), appointment.getAppointmentTime()))));
+                } catch (DateTimeParseException | NullPointerException e) {
+                    skipped++;
+                    log.warn("Cannot backfill appointmentAt for appointment {}: {}", appointment.getId(), e.getMessage());
+                    batch.add(Pair.of(byId, new Update().set("appointmentAt", null)));
+                }
+                if (batch.size() == batchSize) {
+                    updated += flush(batch);
+                }
+            }
+        }
+        updated += flush(batch);
+        if (updated > 0 || skipped > 0) {
+            log.info("Backfilled appointmentAt on {} appointments ({} unparseable, set to null)", updated, skipped);
+        }
+        return updated;
+    }
+
+    private long flush(List<Pair<Query, UpdateDefinition>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int modified = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Appointment.class)
+                .updateOne(batch)
+                .execute()
+                .getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+}
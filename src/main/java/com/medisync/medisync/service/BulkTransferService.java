@@ -0,0 +1,336 @@
+package com.medisync.medisync.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medisync.medisync.cache.AppointmentCacheInvalidator;
+import com.medisync.medisync.dto.BulkImportReport;
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Notification;
+import com.medisync.medisync.entity.User;
+import com.medisync.medisync.repository.AppointmentRepo;
+import com.medisync.medisync.repository.UserRepo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * NDJSON import and export of appointments and users for onboarding clinics. Exports write one document
+ * per line straight from a Mongo cursor; imports read one line at a time, validate it against the entity's
+ * constraints and write valid documents with unordered bulk inserts, so memory use is bounded by the batch
+ * size either way. Imported appointments still go through the slot calendar, so double bookings are
+ * rejected per line, and must name an existing patient and doctor, but no payment is taken and
+ * notifications are only queued on request. Users are exported with their password hashes, so an export
+ * can be imported again.
+ */
+@Slf4j
+@Service
+public class BulkTransferService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String BCRYPT_PREFIX = "$2";
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRepo appointmentRepo;
+    private final UserRepo userRepo;
+    private final AppointmentService appointmentService;
+    private final SlotCalendarService slotCalendarService;
+    private final NotificationService notificationService;
+    private final AppointmentCacheInvalidator appointmentCacheInvalidator;
+    private final CacheManager cacheManager;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public BulkTransferService(MongoTemplate mongoTemplate,
+                               AppointmentRepo appointmentRepo,
+                               UserRepo userRepo,
+                               AppointmentService appointmentService,
+                               SlotCalendarService slotCalendarService,
+                               NotificationService notificationService,
+                               AppointmentCacheInvalidator appointmentCacheInvalidator,
+                               CacheManager cacheManager,
+                               PasswordEncoder passwordEncoder,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${bulk.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.appointmentRepo = appointmentRepo;
+        this.userRepo = userRepo;
+        this.appointmentService = appointmentService;
+        this.slotCalendarService = slotCalendarService;
+        this.notificationService = notificationService;
+        this.appointmentCacheInvalidator = appointmentCacheInvalidator;
+        this.cacheManager = cacheManager;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public void exportAppointments(OutputStream out) throws IOException {
+        try (Stream<Appointment> appointments = appointmentRepo.streamAllBy()) {
+            writeLines(appointments, out);
+        }
+    }
+
+    /**
+     * Users are exported with their BCrypt password hashes, which {@link #importUsers} accepts as they are.
+     */
+    public void exportUsers(OutputStream out) throws IOException {
+        try (Stream<User> users = userRepo.streamAllBy()) {
+            writeLines(users, out);
+        }
+    }
+
+    public BulkImportReport importAppointments(InputStream in, boolean notify) throws IOException {
+        return importLines(in, Appointment.class, new AppointmentBatch(notify));
+    }
+
+    /**
+     * Passwords that are already BCrypt hashes, as in an export, are kept; any other password is taken as
+     * plain text and hashed like on sign-up.
+     */
+    public BulkImportReport importUsers(InputStream in) throws IOException {
+        return importLines(in, User.class, new UserBatch());
+    }
+
+    private <T> void writeLines(Stream<T> documents, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Writer lines = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (Iterator<T> it = documents.iterator(); it.hasNext(); ) {
+            lines.write(writer.writeValueAsString(it.next()));
+            lines.write('\n');
+        }
+        lines.flush();
+    }
+
+    private <T> BulkImportReport importLines(InputStream in, Class<T> type, Batch<T> batch) throws IOException {
+        long started = System.nanoTime();
+        BulkImportReport report = new BulkImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.setLines(report.getLines() + 1);
+            T document;
+            try {
+                document = objectMapper.readValue(line, type);
+            } catch (JsonProcessingException e) {
+                fail(report, lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(document);
+            if (!violations.isEmpty()) {
+                fail(report, lineNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+            String rejection = batch.add(lineNumber, document);
+            if (rejection != null) {
+                fail(report, lineNumber, rejection);
+            } else if (batch.size() >= batchSize) {
+                batch.flush(report);
+            }
+        }
+        batch.flush(report);
+
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        report.setLinesPerSecond(report.getLines() * 1000.0 / Math.max(1, report.getElapsedMillis()));
+        log.info("Imported {} of {} {} lines in {} ms", report.getImported(), report.getLines(), type.getSimpleName(), report.getElapsedMillis());
+        return report;
+    }
+
+    private static void fail(BulkImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new BulkImportReport.LineError(line, message));
+        }
+    }
+
+    /**
+     * Writes the pending documents with one unordered bulk insert and returns, per pending index, the
+     * error for documents that were not written.
+     */
+    private Map<Integer, String> insert(Class<?> type, List<?> documents) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> errors = new HashMap<>();
+            e.getErrors().forEach(error -> errors.put(error.getIndex(),
+                    error.getCode() == 11000 ? "Duplicate key" : error.getMessage()));
+            return errors;
+        } catch (DuplicateKeyException e) {
+            Map<Integer, String> errors = new HashMap<>();
+            for (int i = 0; i < documents.size(); i++) {
+                errors.put(i, "Duplicate key");
+            }
+            return errors;
+        }
+    }
+
+    private abstract static class Batch<T> {
+
+        final List<T> documents = new ArrayList<>();
+        final List<Long> lines = new ArrayList<>();
+
+        /**
+         * Queues a valid document, or returns why it cannot be imported.
+         */
+        String add(long line, T document) {
+            documents.add(document);
+            lines.add(line);
+            return null;
+        }
+
+        int size() {
+            return documents.size();
+        }
+
+        abstract void flush(BulkImportReport report);
+    }
+
+    private final class AppointmentBatch extends Batch<Appointment> {
+
+        private final boolean notify;
+        private final List<SlotCalendarService.Slot> slots = new ArrayList<>();
+
+        private AppointmentBatch(boolean notify) {
+            this.notify = notify;
+        }
+
+        @Override
+        String add(long line, Appointment appointment) {
+            if (appointment.getId() == null) {
+                appointment.setId(new ObjectId().toHexString());
+            }
+            try {
+                slots.add(slotCalendarService.reserve(appointment));
+            } catch (SlotConflictException e) {
+                return e.getMessage();
+            } catch (RuntimeException e) {
+                return "Invalid appointment date or time";
+            }
+            return super.add(line, appointment);
+        }
+
+        @Override
+        void flush(BulkImportReport report) {
+            rejectUnknownUsers(report);
+            if (documents.isEmpty()) {
+                return;
+            }
+            Map<Integer, String> errors = insert(Appointment.class, documents);
+            List<Appointment> inserted = new ArrayList<>();
+            Set<String> invalidated = new HashSet<>();
+            for (int i = 0; i < documents.size(); i++) {
+                Appointment appointment = documents.get(i);
+                String error = errors.get(i);
+                if (error != null) {
+                    slotCalendarService.release(slots.get(i));
+                    fail(report, lines.get(i), error);
+                    continue;
+                }
+                slotCalendarService.commit(appointment);
+                if (invalidated.add(appointment.getDoctorId() + "|" + appointment.getPatientId())) {
+                    appointmentCacheInvalidator.onSaved(null, appointment);
+                }
+                inserted.add(appointment);
+            }
+            report.setImported(report.getImported() + inserted.size());
+
+            if (notify && !inserted.isEmpty()) {
+                List<Notification> notifications = new ArrayList<>();
+                inserted.forEach(appointment -> notifications.addAll(appointmentService.bookingNotifications(appointment)));
+                notificationService.queueNotifications(notifications);
+            }
+            documents.clear();
+            lines.clear();
+            slots.clear();
+        }
+
+        /**
+         * Drops pending appointments whose patient or doctor does not exist, with one lookup per batch.
+         */
+        private void rejectUnknownUsers(BulkImportReport report) {
+            Set<String> userIds = new HashSet<>();
+            documents.forEach(appointment -> {
+                userIds.add(appointment.getPatientId());
+                userIds.add(appointment.getDoctorId());
+            });
+            userIds.remove(null);
+            Set<String> existingIds = new HashSet<>();
+            userRepo.findAllById(userIds).forEach(user -> existingIds.add(user.getId()));
+
+            for (int i = 0; i < documents.size(); ) {
+                Appointment appointment = documents.get(i);
+                String missing = !existingIds.contains(appointment.getPatientId()) ? "Patient not found: " + appointment.getPatientId()
+                        : !existingIds.contains(appointment.getDoctorId()) ? "Doctor not found: " + appointment.getDoctorId()
+                        : null;
+                if (missing != null) {
+                    slotCalendarService.release(slots.remove(i));
+                    documents.remove(i);
+                    fail(report, lines.remove(i), missing);
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+
+    private final class UserBatch extends Batch<User> {
+
+        @Override
+        String add(long line, User user) {
+            user.setId(null);
+            if (!user.getPassword().startsWith(BCRYPT_PREFIX)) {
+                user.setPassword(passwordEncoder.encode(user.getPassword()));
+            }
+            return super.add(line, user);
+        }
+
+        @Override
+        void flush(BulkImportReport report) {
+            if (documents.isEmpty()) {
+                return;
+            }
+            Map<Integer, String> errors = insert(User.class, documents);
+            errors.forEach((index, error) -> fail(report, lines.get(index), error));
+            report.setImported(report.getImported() + documents.size() - errors.size());
+            for (String cacheName : List.of("allUsers", "doctorDirectory")) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            documents.clear();
+            lines.clear();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Notification;
+import com.medisync.medisync.entity.OutboxNotification;
+import com.medisync.medisync.repository.NotificationRepo;
+import com.medisync.medisync.repository.OutboxNotificationRepo;
+import com.medisync.medisync.repository.UserRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the notification outbox on a single background thread: claims a batch, checks all recipients
+ * with one query, writes the notifications with one unordered bulk insert and deletes the delivered
+ * entries. Failed batches are retried with exponential backoff; entries that keep failing, or whose
+ * recipient no longer exists, are moved to the dead-letter collection.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private final OutboxNotificationRepo outboxNotificationRepo;
+    private final NotificationRepo notificationRepo;
+    private final UserRepo userRepo;
+    private final RedisService redisService;
+    private final NotificationStreamService notificationStreamService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationDispatcher(OutboxNotificationRepo outboxNotificationRepo,
+                                  NotificationRepo notificationRepo,
+                                  UserRepo userRepo,
+                                  RedisService redisService,
+                                  NotificationStreamService notificationStreamService,
+                                  @Value("${notification.outbox.batch-size:200}") int batchSize,
+                                  @Value("${notification.outbox.max-attempts:5}") int maxAttempts,
+                                  @Value("${notification.outbox.poll-interval:500ms}") Duration pollInterval,
+                                  @Value("${notification.outbox.lease:30s}") Duration lease) {
+        this.outboxNotificationRepo = outboxNotificationRepo;
+        this.notificationRepo = notificationRepo;
+        this.userRepo = userRepo;
+        this.redisService = redisService;
+        this.notificationStreamService = notificationStreamService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Notification dispatcher started (batch size {}, poll interval {})", batchSize, pollInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    void drain() {
+        try {
+            List<OutboxNotification> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    dispatch(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Notification dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<OutboxNotification> claimBatch() {
+        return outboxNotificationRepo.claimBatch(instanceId, Instant.now(), lease, batchSize);
+    }
+
+    private void dispatch(List<OutboxNotification> batch) {
+        Set<String> recipientIds = batch.stream().map(OutboxNotification::getRecipientId).collect(Collectors.toSet());
+        Set<String> existingIds = new HashSet<>();
+        userRepo.findAllById(recipientIds).forEach(user -> existingIds.add(user.getId()));
+
+        List<OutboxNotification> deliverable = new ArrayList<>();
+        for (OutboxNotification entry : batch) {
+            if (existingIds.contains(entry.getRecipientId())) {
+                deliverable.add(entry);
+            } else {
+                entry.setLastError("User not found for notification with ID: " + entry.getRecipientId());
+                deadLetter(entry);
+            }
+        }
+        if (deliverable.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<OutboxNotification> inserted = insertNotifications(deliverable);
+            redisService.incrementUnread(inserted.stream()
+                    .collect(Collectors.groupingBy(OutboxNotification::getRecipientId, Collectors.counting())));
+            notificationStreamService.publish(inserted.stream().map(NotificationDispatcher::toNotification).toList());
+            outboxNotificationRepo.deleteAllById(deliverable.stream().map(OutboxNotification::getId).toList());
+            log.debug("Dispatched {} notifications", deliverable.size());
+        } catch (Exception e) {
+            log.warn("Failed to dispatch {} notifications: {}", deliverable.size(), e.getMessage());
+            deliverable.forEach(entry -> scheduleRetry(entry, e));
+        }
+    }
+
+    /**
+     * Returns the entries that were newly written; ones delivered by an earlier attempt are left out so
+     * unread counters are only raised once. Notifications reuse the outbox id, which is what makes a
+     * retry after a partial write detectable.
+     */
+    private List<OutboxNotification> insertNotifications(List<OutboxNotification> entries) {
+        Set<String> insertedIds = notificationRepo.insertNew(entries.stream().map(NotificationDispatcher::toNotification).toList())
+                .stream()
+                .map(Notification::getId)
+                .collect(Collectors.toSet());
+        return entries.stream().filter(entry -> insertedIds.contains(entry.getId())).toList();
+    }
+
+    private static Notification toNotification(OutboxNotification entry) {
+        return Notification.builder()
+                .id(entry.getId())
+                .recipientId(entry.getRecipientId())
+                .message(entry.getMessage())
+                .timestamp(entry.getCreatedAt())
+                .isRead(false)
+                .build();
+    }
+
+    private void scheduleRetry(OutboxNotification entry, Exception cause) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setLastError(cause.getMessage());
+        if (entry.getAttempts() >= maxAttempts) {
+            deadLetter(entry);
+            return;
+        }
+        long backoffSeconds = Math.min(1L << entry.getAttempts(), 300);
+        entry.setNextAttemptAt(Instant.now().plusSeconds(backoffSeconds));
+        entry.setLockedBy(null);
+        entry.setLockedUntil(null);
+        outboxNotificationRepo.save(entry);
+    }
+
+    private void deadLetter(OutboxNotification entry) {
+        log.error("Moving notification {} for user ID {} to dead letters: {}", entry.getId(), entry.getRecipientId(), entry.getLastError());
+        outboxNotificationRepo.moveToDeadLetters(entry);
+    }
+}
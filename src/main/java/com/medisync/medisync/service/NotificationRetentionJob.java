@@ -0,0 +1,80 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.repository.NotificationRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves read notifications older than {@code notification.retention.max-age} from the hot
+ * {@code notifications} collection to {@code notifications_archive}, in bounded batches. Unread
+ * notifications are never archived, so the unread counters stay accurate.
+ */
+@Slf4j
+@Component
+public class NotificationRetentionJob {
+
+    static final String ARCHIVE_COLLECTION = "notifications_archive";
+
+    private final NotificationRepo notificationRepo;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Duration interval;
+    private final int batchSize;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-retention");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationRetentionJob(NotificationRepo notificationRepo,
+                                    @Value("${notification.retention.enabled:true}") boolean enabled,
+                                    @Value("${notification.retention.max-age:90d}") Duration maxAge,
+                                    @Value("${notification.retention.interval:1h}") Duration interval,
+                                    @Value("${notification.retention.batch-size:1000}") int batchSize) {
+        this.notificationRepo = notificationRepo;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::archive, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public long archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        long archived = 0;
+        try {
+            int moved;
+            do {
+                moved = notificationRepo.archiveRead(cutoff, ARCHIVE_COLLECTION, batchSize);
+                archived += moved;
+            } while (moved == batchSize);
+        } catch (Exception e) {
+            log.error("Notification archival failed after {} notifications: {}", archived, e.getMessage(), e);
+        }
+        if (archived > 0) {
+            log.info("Archived {} read notifications older than {}", archived, cutoff);
+        }
+        return archived;
+    }
+}
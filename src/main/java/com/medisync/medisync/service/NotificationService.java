@@ -1,14 +1,18 @@
 package com.medisync.medisync.service;
 
+import com.medisync.medisync.dto.NotificationFeed;
 import com.medisync.medisync.entity.Notification;
+import com.medisync.medisync.entity.OutboxNotification;
 import com.medisync.medisync.entity.User;
 import com.medisync.medisync.repository.NotificationRepo;
+import com.medisync.medisync.repository.OutboxNotificationRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +22,13 @@ import java.util.Optional;
 public class NotificationService {
 
     private final NotificationRepo notificationRepo;
+    private final OutboxNotificationRepo outboxNotificationRepo;
     private final UserService userService;
+    private final RedisService redisService;
+    private final NotificationStreamService notificationStreamService;
 
     public Notification sendNotification(String userMongoId, String message) {
-        log.info("Creating notification for user ID: {}", userMongoId);
+        log.debug("Creating notification for user ID: {}", userMongoId);
 
         Optional<User> userOptional = userService.findUserById(userMongoId);
 
@@ -33,16 +40,73 @@ public class NotificationService {
                     .isRead(false)
                     .build();
 
-            log.info("Notification saved for user ID: {}", userMongoId);
-            return notificationRepo.save(notification);
+            Notification saved = notificationRepo.save(notification);
+            redisService.incrementUnread(userMongoId, 1);
+            notificationStreamService.publish(saved);
+            log.debug("Notification saved for user ID: {}", userMongoId);
+            return saved;
         } else {
             log.error("User not found for notification with ID: {}", userMongoId);
             throw new IllegalArgumentException("User not found for notification with ID: " + userMongoId);
         }
     }
 
-    public List<Notification> getNotificationsForUser(String userId) {
-        log.info("Fetching notifications for user ID: {}", userId);
-        return notificationRepo.findByRecipientIdOrderByTimestampDesc(userId);
+    /**
+     * Records notifications in the outbox with a single insert; they are delivered by
+     * {@link NotificationDispatcher} so the caller does not wait on recipient checks or notification writes.
+     * Call it inside the transaction of the write that caused the notifications, so both commit or neither does.
+     */
+    public void queueNotifications(List<Notification> notifications) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxNotification> entries = notifications.stream()
+                .map(notification -> OutboxNotification.builder()
+                        .recipientId(notification.getRecipientId())
+                        .message(notification.getMessage())
+                        .createdAt(now)
+                        .nextAttemptAt(Instant.now())
+                        .build())
+                .toList();
+        outboxNotificationRepo.insert(entries);
+        log.debug("Queued {} notifications", entries.size());
     }
-}
\ No newline at end of file
+
+    /**
+     * The newest {@code limit} notifications of a user. Opening the full list is rare compared to badge
+     * polls, so it is also where a lost unread counter gets recounted.
+     */
+    public List<Notification> getNotificationsForUser(String userId, int limit) {
+        log.debug("Fetching notifications for user ID: {}", userId);
+        if (!redisService.hasUnreadCount(userId)) {
+            redisService.restoreUnreadCount(userId, notificationRepo.countByRecipientIdAndIsRead(userId, false));
+        }
+        return notificationRepo.findFeed(userId, null, null, limit);
+    }
+
+    public NotificationFeed getFeed(String userId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        List<Notification> content = notificationRepo.findFeed(userId, beforeTimestamp, beforeId, limit);
+        String nextCursor = null;
+        if (content.size() == limit) {
+            Notification last = content.get(content.size() - 1);
+            nextCursor = last.getTimestamp() + "," + last.getId();
+        }
+        return new NotificationFeed(content, nextCursor);
+    }
+
+    public long getUnreadCount(String userId) {
+        return redisService.getUnreadCount(userId);
+    }
+
+    /**
+     * Marks the given notifications of {@code userId} read with a single update and lowers the unread
+     * counter by the number that actually changed, so ids that were already read or belong to someone
+     * else do not skew it. Returns the remaining unread count.
+     */
+    public long markRead(String userId, Collection<String> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return redisService.getUnreadCount(userId);
+        }
+        long modified = notificationRepo.markRead(userId, notificationIds);
+        log.debug("Marked {} notifications read for user ID: {}", modified, userId);
+        return modified > 0 ? redisService.decrementUnread(userId, modified) : redisService.getUnreadCount(userId);
+    }
+}
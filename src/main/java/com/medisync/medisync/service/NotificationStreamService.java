@@ -0,0 +1,149 @@
+package com.medisync.medisync.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medisync.medisync.entity.Notification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Pushes new notifications to connected clients over Server-Sent Events. Each open stream is an
+ * {@link SseEmitter} parked on the servlet container's async support, so it holds no request thread.
+ * Notifications are published on a Redis channel and every instance delivers them to the streams it
+ * holds, which lets a user be connected to any instance behind the load balancer.
+ */
+@Slf4j
+@Service
+public class NotificationStreamService implements MessageListener {
+
+    public static final String CHANNEL = "medisync:notifications";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final int maxStreamsPerUser;
+    private final Map<String, Deque<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationStreamService(StringRedisTemplate redisTemplate,
+                                     ObjectMapper objectMapper,
+                                     @Value("${notification.stream.timeout:30m}") Duration timeout,
+                                     @Value("${notification.stream.max-per-user:5}") int maxStreamsPerUser,
+                                     @Value("${notification.stream.heartbeat:25s}") Duration heartbeatInterval) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        // Comments keep idle connections open through proxies and surface clients that went away.
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        // Old tabs that never closed cleanly should not pin connections forever. Adding inside compute keeps a
+        // concurrent remove from dropping the deque between looking it up and adding to it.
+        List<SseEmitter> evicted = new ArrayList<>();
+        streams.compute(userId, (id, userStreams) -> {
+            Deque<SseEmitter> deque = userStreams != null ? userStreams : new ConcurrentLinkedDeque<>();
+            deque.addLast(emitter);
+            while (deque.size() > maxStreamsPerUser) {
+                evicted.add(deque.pollFirst());
+            }
+            return deque;
+        });
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+        // Completed outside compute, as completion callbacks update the map again.
+        evicted.forEach(SseEmitter::complete);
+        return emitter;
+    }
+
+    /**
+     * Announces a stored notification to all instances; delivery to local streams happens when the
+     * message comes back on the channel.
+     */
+    public void publish(Notification notification) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(notification));
+        } catch (Exception e) {
+            log.warn("Could not publish notification {} to the stream channel: {}", notification.getId(), e.getMessage());
+            deliver(notification);
+        }
+    }
+
+    public void publish(List<Notification> notifications) {
+        notifications.forEach(this::publish);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            deliver(objectMapper.readValue(message.getBody(), Notification.class));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed notification stream message: {}", e.getMessage());
+        }
+    }
+
+    public int getOpenStreamCount() {
+        return streams.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeat.shutdown();
+        streams.values().forEach(userStreams -> userStreams.forEach(SseEmitter::complete));
+        streams.clear();
+    }
+
+    void deliver(Notification notification) {
+        Deque<SseEmitter> userStreams = streams.get(notification.getRecipientId());
+        if (userStreams == null) {
+            return;
+        }
+        for (SseEmitter emitter : userStreams) {
+            send(notification.getRecipientId(), emitter, SseEmitter.event()
+                    .id(notification.getId())
+                    .name("notification")
+                    .data(notification));
+        }
+    }
+
+    private void sendHeartbeats() {
+        streams.forEach((userId, userStreams) -> userStreams.forEach(emitter ->
+                send(userId, emitter, SseEmitter.event().comment("keep-alive"))));
+    }
+
+    private void send(String userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (Exception e) {
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(String userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.remove(emitter);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+}
@@ -1,13 +1,74 @@
 package com.medisync.medisync.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user unread notification counters. Each counter is a single Redis integer changed with atomic
+ * INCRBY/DECRBY, so the unread badge can be served without reading notifications at all.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class RedisService {
 
-    @Autowired
-    private RedisTemplate redisTemplate;
+    private static final String UNREAD_KEY = "notifications:unread:";
+
+    // Never lets a counter go negative, e.g. when a read races with a counter that was reset.
+    private static final RedisScript<Long> DECREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('DECRBY', KEYS[1], ARGV[1]) " +
+            "if v < 0 then redis.call('SET', KEYS[1], 0) v = 0 end " +
+            "return v", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public void incrementUnread(String userId, long delta) {
+        try {
+            redisTemplate.opsForValue().increment(UNREAD_KEY + userId, delta);
+        } catch (Exception e) {
+            log.warn("Could not increment unread count for user ID {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public void incrementUnread(Map<String, Long> deltasByUser) {
+        deltasByUser.forEach(this::incrementUnread);
+    }
+
+    public long decrementUnread(String userId, long delta) {
+        Long remaining = redisTemplate.execute(DECREMENT_SCRIPT, List.of(UNREAD_KEY + userId), String.valueOf(delta));
+        return remaining != null ? remaining : 0;
+    }
+
+    public long getUnreadCount(String userId) {
+        String count = redisTemplate.opsForValue().get(UNREAD_KEY + userId);
+        return count != null ? Long.parseLong(count) : 0;
+    }
+
+    public boolean hasUnreadCount(String userId) {
+        try {
+            return redisTemplate.opsForValue().get(UNREAD_KEY + userId) != null;
+        } catch (Exception e) {
+            log.warn("Could not read unread count for user ID {}: {}", userId, e.getMessage());
+            return true;
+        }
+    }
 
+    /**
+     * Restores a lost counter. SET NX never overwrites a live one, so increments made while
+     * {@code count} was being computed are not lost.
+     */
+    public void restoreUnreadCount(String userId, long count) {
+        try {
+            redisTemplate.opsForValue().setIfAbsent(UNREAD_KEY + userId, String.valueOf(count));
+        } catch (Exception e) {
+            log.warn("Could not restore unread count for user ID {}: {}", userId, e.getMessage());
+        }
+    }
 }
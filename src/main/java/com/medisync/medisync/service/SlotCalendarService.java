@@ -0,0 +1,308 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.repository.AppointmentRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one bitmap per doctor and day (one bit per slot) so that availability searches and most
+ * double-booking checks never have to go back to Mongo. A doctor's calendar is loaded from
+ * {@link AppointmentRepo} the first time it is needed and kept current by this instance's writes only;
+ * the unique index on {@code Appointment.slotKey} is what rules out double bookings across instances.
+ */
+@Slf4j
+@Service
+public class SlotCalendarService {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("H:mm");
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final EnumSet<Status> OCCUPYING = EnumSet.of(Status.PENDING, Status.CONFIRMED, Status.SUCCESS);
+
+    private final AppointmentRepo appointmentRepo;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int firstBookableSlot;
+    private final int lastBookableSlot;
+
+    private final Map<String, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<String, Slot> slotsByAppointmentId = new ConcurrentHashMap<>();
+    // Committed holder of each slot; guarded by the doctor's calendar, like the bits.
+    private final Map<Slot, String> holdersBySlot = new ConcurrentHashMap<>();
+
+    public SlotCalendarService(AppointmentRepo appointmentRepo,
+                               @Value("${appointment.slot-minutes:30}") int slotMinutes,
+                               @Value("${appointment.day-start:09:00}") String dayStart,
+                               @Value("${appointment.day-end:18:00}") String dayEnd) {
+        if (slotMinutes <= 0 || (24 * 60) % slotMinutes != 0) {
+            throw new IllegalArgumentException("appointment.slot-minutes must divide a day evenly: " + slotMinutes);
+        }
+        this.appointmentRepo = appointmentRepo;
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = (24 * 60) / slotMinutes;
+        this.firstBookableSlot = slotIndex(LocalTime.parse(dayStart, TIME_FORMAT));
+        this.lastBookableSlot = slotIndex(LocalTime.parse(dayEnd, TIME_FORMAT));
+    }
+
+    public record Slot(String doctorId, LocalDate date, int index) {
+    }
+
+    /**
+     * Claims the slot the appointment asks for, or throws {@link SlotConflictException} if another
+     * appointment already holds it, and sets the appointment's {@code slotKey} accordingly. Returns the newly
+     * claimed slot, or {@code null} if this call did not set its bit (the appointment keeps its current slot,
+     * does not occupy one, or found the bit set by a booking Mongo does not know yet). Callers must either
+     * {@link #commit} or {@link #release(Slot)} the returned slot.
+     * <p>
+     * The calendar only sees this instance's writes, so it is a pre-check: a free bit lets the write go ahead
+     * and the unique index on {@code slotKey} has the final say, a taken bit is confirmed against Mongo
+     * before the booking is refused. When the recheck lets the booking through, the bit stays with whoever
+     * set it, so losing on the index cannot free a slot another booking holds; {@link #commit} sets the bit
+     * for whichever booking wins.
+     */
+    public Slot reserve(Appointment appointment) {
+        if (!occupiesSlot(appointment)) {
+            appointment.setSlotKey(null);
+            return null;
+        }
+        Slot slot = slotFor(appointment);
+        appointment.setSlotKey(slotKey(slot));
+        DoctorCalendar calendar = calendarFor(slot.doctorId());
+        if (appointment.getId() != null && slot.equals(slotsByAppointmentId.get(appointment.getId()))) {
+            return null;
+        }
+        synchronized (calendar) {
+            if (!calendar.isSet(slot.date(), slot.index())) {
+                calendar.set(slot.date(), slot.index());
+                return slot;
+            }
+        }
+        // Another instance may have cancelled or moved the appointment that set the bit.
+        if (isHeldElsewhere(slot, appointment.getId())) {
+            throw conflict(slot);
+        }
+        return null;
+    }
+
+    public SlotConflictException conflict(Appointment appointment) {
+        return conflict(slotFor(appointment));
+    }
+
+    /**
+     * Records where a saved appointment now sits, sets its slot's bit and frees the slot it held before, if
+     * it moved.
+     */
+    public void commit(Appointment saved) {
+        Slot current = occupiesSlot(saved) ? slotFor(saved) : null;
+        Slot previous = current != null
+                ? slotsByAppointmentId.put(saved.getId(), current)
+                : slotsByAppointmentId.remove(saved.getId());
+        if (current != null) {
+            DoctorCalendar calendar = calendars.get(current.doctorId());
+            if (calendar != null) {
+                synchronized (calendar) {
+                    holdersBySlot.put(current, saved.getId());
+                    calendar.set(current.date(), current.index());
+                }
+            }
+        }
+        if (previous != null && !previous.equals(current)) {
+            unhold(previous, saved.getId());
+        }
+    }
+
+    /**
+     * Whether an appointment in {@code status} keeps its slot taken; {@code null} counts as taken.
+     */
+    public boolean holdsSlot(Status status) {
+        return status == null || OCCUPYING.contains(status);
+    }
+
+    public void release(String appointmentId) {
+        Slot slot = slotsByAppointmentId.remove(appointmentId);
+        if (slot != null) {
+            unhold(slot, appointmentId);
+        }
+    }
+
+    /**
+     * Gives back a slot returned by {@link #reserve} whose write failed. The bit stays set if a committed
+     * appointment holds the slot, as when this booking lost to it on the unique index.
+     */
+    public void release(Slot slot) {
+        if (slot == null) {
+            return;
+        }
+        DoctorCalendar calendar = calendars.get(slot.doctorId());
+        if (calendar != null) {
+            synchronized (calendar) {
+                if (!holdersBySlot.containsKey(slot)) {
+                    calendar.clear(slot.date(), slot.index());
+                }
+            }
+        }
+    }
+
+    private void unhold(Slot slot, String appointmentId) {
+        DoctorCalendar calendar = calendars.get(slot.doctorId());
+        if (calendar != null) {
+            synchronized (calendar) {
+                holdersBySlot.remove(slot, appointmentId);
+                if (!holdersBySlot.containsKey(slot)) {
+                    calendar.clear(slot.date(), slot.index());
+                }
+            }
+        }
+    }
+
+    /**
+     * Free bookable slots for a doctor, per day, inclusive of both dates.
+     */
+    public Map<LocalDate, List<String>> findFreeSlots(String doctorId, LocalDate from, LocalDate to) {
+        DoctorCalendar calendar = calendarFor(doctorId);
+        Map<LocalDate, List<String>> freeSlots = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            long[] bits;
+            synchronized (calendar) {
+                long[] day = calendar.days.get(date);
+                bits = day != null ? day.clone() : null;
+            }
+            List<String> free = new ArrayList<>();
+            for (int index = firstBookableSlot; index < lastBookableSlot; index++) {
+                if (bits == null || (bits[index >>> 6] & (1L << (index & 63))) == 0) {
+                    free.add(formatSlot(index));
+                }
+            }
+            freeSlots.put(date, free);
+        }
+        return freeSlots;
+    }
+
+    private boolean isHeldElsewhere(Slot slot, String appointmentId) {
+        for (Appointment other : appointmentRepo.findByDoctorIdAndAppointmentDate(slot.doctorId(), slot.date().toString())) {
+            if (!other.getId().equals(appointmentId) && occupiesSlot(other)) {
+                try {
+                    if (slotFor(other).equals(slot)) {
+                        return true;
+                    }
+                } catch (DateTimeParseException e) {
+                    // Unparseable appointments hold no slot, as in loadCalendar.
+                }
+            }
+        }
+        return false;
+    }
+
+    private SlotConflictException conflict(Slot slot) {
+        return new SlotConflictException("Doctor already has an appointment on " + slot.date() + " at " + formatSlot(slot.index()));
+    }
+
+    // Slot start rather than the requested time, so 10:00 and 10:15 collide in a 30-minute grid.
+    private String slotKey(Slot slot) {
+        return slot.doctorId() + "|" + slot.date() + "|" + formatSlot(slot.index());
+    }
+
+    // Loaded outside computeIfAbsent, which would hold a map bin lock, and with it lookups of other doctors,
+    // for the whole Mongo query. Concurrent first lookups may both load; the first calendar stored wins.
+    private DoctorCalendar calendarFor(String doctorId) {
+        DoctorCalendar calendar = calendars.get(doctorId);
+        if (calendar != null) {
+            return calendar;
+        }
+        Map<String, Slot> loadedSlots = new HashMap<>();
+        DoctorCalendar loaded = loadCalendar(doctorId, loadedSlots);
+        DoctorCalendar existing = calendars.putIfAbsent(doctorId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (loaded) {
+            loadedSlots.forEach((appointmentId, slot) -> {
+                slotsByAppointmentId.putIfAbsent(appointmentId, slot);
+                holdersBySlot.putIfAbsent(slot, appointmentId);
+            });
+        }
+        return loaded;
+    }
+
+    private DoctorCalendar loadCalendar(String doctorId, Map<String, Slot> loadedSlots) {
+        DoctorCalendar calendar = new DoctorCalendar(slotsPerDay);
+        List<Appointment> appointments = appointmentRepo.findByDoctorId(doctorId);
+        for (Appointment appointment : appointments) {
+            if (!occupiesSlot(appointment)) {
+                continue;
+            }
+            try {
+                Slot slot = slotFor(appointment);
+                calendar.set(slot.date(), slot.index());
+                loadedSlots.put(appointment.getId(), slot);
+            } catch (DateTimeParseException e) {
+                log.warn("Skipping appointment {} with unparseable date/time: {}", appointment.getId(), e.getMessage());
+            }
+        }
+        log.info("Loaded slot calendar for doctor ID: {} ({} appointments)", doctorId, appointments.size());
+        return calendar;
+    }
+
+    private boolean occupiesSlot(Appointment appointment) {
+        return appointment.getDoctorId() != null
+                && appointment.getAppointmentDate() != null
+                && appointment.getAppointmentTime() != null
+                && holdsSlot(appointment.getStatus());
+    }
+
+    private Slot slotFor(Appointment appointment) {
+        LocalDate date = LocalDate.parse(appointment.getAppointmentDate());
+        LocalTime time = LocalTime.parse(appointment.getAppointmentTime(), TIME_FORMAT);
+        return new Slot(appointment.getDoctorId(), date, slotIndex(time));
+    }
+
+    private int slotIndex(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / slotMinutes;
+    }
+
+    private String formatSlot(int index) {
+        return LocalTime.MIN.plusMinutes((long) index * slotMinutes).format(SLOT_FORMAT);
+    }
+
+    private static final class DoctorCalendar {
+
+        private final int words;
+        private final Map<LocalDate, long[]> days = new HashMap<>();
+
+        private DoctorCalendar(int slotsPerDay) {
+            this.words = (slotsPerDay + 63) >>> 6;
+        }
+
+        private boolean isSet(LocalDate date, int index) {
+            long[] day = days.get(date);
+            return day != null && (day[index >>> 6] & (1L << (index & 63))) != 0;
+        }
+
+        private void set(LocalDate date, int index) {
+            days.computeIfAbsent(date, d -> new long[words])[index >>> 6] |= 1L << (index & 63);
+        }
+
+        private void clear(LocalDate date, int index) {
+            long[] day = days.get(date);
+            if (day == null) {
+                return;
+            }
+            day[index >>> 6] &= ~(1L << (index & 63));
+            for (long word : day) {
+                if (word != 0) {
+                    return;
+                }
+            }
+            days.remove(date);
+        }
+    }
+}
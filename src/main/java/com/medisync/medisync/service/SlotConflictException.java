@@ -0,0 +1,8 @@
+package com.medisync.medisync.service;
+
+public class SlotConflictException extends RuntimeException {
+
+    public SlotConflictException(String message) {
+        super(message);
+    }
+}
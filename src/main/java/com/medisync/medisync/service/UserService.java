@@ -1,15 +1,27 @@
 package com.medisync.medisync.service;
+import com.medisync.medisync.dto.DoctorSummary;
+import com.medisync.medisync.entity.Role;
 import com.medisync.medisync.entity.User;
 import com.medisync.medisync.repository.UserRepo;
+import com.medisync.medisync.security.RefreshTokenStore;
+import com.medisync.medisync.security.RevokedUserRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // Added annotation
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -19,10 +31,16 @@ public class UserService {
 
     private final UserRepo userRepo;
     private final PasswordEncoder passwordEncoder;
+    private final RevokedUserRegistry revokedUserRegistry;
+    private final RefreshTokenStore refreshTokenStore;
+    private final CacheManager cacheManager;
 
 
+    /**
+     * Stores a new user, hashing the raw password; existing users are changed through {@link #patchUser}.
+     */
     @CachePut(value = "userDetails", key = "#result.username")
-    @CacheEvict(value = "allUsers", allEntries = true)
+    @CacheEvict(value = {"allUsers", "doctorDirectory"}, allEntries = true)
     @Transactional
     public User saveUser(User user) {
         log.info("Saving user with username: {}", user.getUsername());
@@ -32,42 +50,126 @@ public class UserService {
         return savedUser;
     }
 
-    @Cacheable(value = "allUsers", key = "'all'")
+    /**
+     * Writes the non-blank fields of {@code changes} with a single findAndModify and returns the updated user,
+     * or empty if it does not exist. The password is hashed only when a new one is given, and the role is only
+     * changed if {@code roleChangeAllowed}. When {@code changes} carries a version the write only applies to
+     * that version and {@link OptimisticLockingFailureException} is thrown if the user has moved past it. Tokens are revoked when the
+     * username, password or role changes.
+     */
+    public Optional<User> patchUser(String id, User changes, boolean roleChangeAllowed) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (changes.getUsername() != null && !changes.getUsername().isBlank()) {
+            fields.put("username", changes.getUsername());
+        }
+        if (changes.getPhoneNumber() != null && !changes.getPhoneNumber().isBlank()) {
+            fields.put("phoneNumber", changes.getPhoneNumber());
+        }
+        if (changes.getPassword() != null && !changes.getPassword().isBlank()) {
+            fields.put("password", passwordEncoder.encode(changes.getPassword()));
+        }
+        if (roleChangeAllowed && changes.getRole() != null) {
+            fields.put("role", changes.getRole());
+        }
+        if (fields.isEmpty()) {
+            return userRepo.findById(id);
+        }
+
+        Optional<User> saved = userRepo.patch(id, changes.getVersion(), fields);
+        if (saved.isEmpty()) {
+            if (changes.getVersion() != null && userRepo.existsById(id)) {
+                throw new OptimisticLockingFailureException("User " + id + " was modified concurrently");
+            }
+            return saved;
+        }
+        log.info("User {} updated: {}", id, fields.keySet());
+
+        evictAll("allUsers");
+        evictAll("doctorDirectory");
+        Cache userDetails = cacheManager.getCache("userDetails");
+        if (userDetails != null) {
+            if (fields.containsKey("username")) {
+                // The entry under the previous username is not known here; renames are rare.
+                userDetails.clear();
+            } else {
+                userDetails.put(id, saved.get());
+                userDetails.put(saved.get().getUsername(), saved.get());
+            }
+        }
+        if (fields.containsKey("username") || fields.containsKey("password") || fields.containsKey("role")) {
+            revokeTokens(id);
+        }
+        return saved;
+    }
+
+    @Cacheable(value = "allUsers", key = "'all'", sync = true)
     public List<User> findAllUsers() {
-        log.info("Fetching all users from the database");
+        log.debug("Fetching all users from the database");
         List<User> users = userRepo.findAll();
-        log.info("Total users found: {}", users.size());
+        log.debug("Total users found: {}", users.size());
         return users;
     }
 
+    /**
+     * Doctors ordered by username, optionally filtered by username prefix; {@code page} null means unpaged.
+     */
+    @Cacheable(value = "doctorDirectory", key = "#prefix + ':' + #page + ':' + #size", sync = true)
+    public List<DoctorSummary> findDoctors(String prefix, Integer page, int size) {
+        log.debug("Fetching doctor directory (prefix '{}', page {})", prefix, page);
+        Sort byUsername = Sort.by("username");
+        Pageable pageable = page != null ? PageRequest.of(page, size, byUsername) : Pageable.unpaged(byUsername);
+        if (prefix == null || prefix.isBlank()) {
+            return userRepo.findByRole(Role.DOCTOR, pageable);
+        }
+        return userRepo.findByRoleAndUsernameStartingWith(Role.DOCTOR, prefix, pageable);
+    }
+
     @Cacheable(value = "userDetails", key = "#id", condition = "#result != null && !#result.isEmpty()")
     public Optional<User> findUserById(String id) {
-        log.info("Fetching user by ID: {}", id);
+        log.debug("Fetching user by ID: {}", id);
         Optional<User> user = userRepo.findById(id);
         if (user.isPresent()) {
-            log.info("User found: {}", user.get().getUsername());
+            log.debug("User found: {}", user.get().getUsername());
         } else {
             log.warn("User not found with ID: {}", id);
         }
         return user;
     }
 
-    @CacheEvict(value = {"userDetails", "allUsers"}, key = "#id", allEntries = true)
+    @CacheEvict(value = {"userDetails", "allUsers", "doctorDirectory"}, key = "#id", allEntries = true)
     public void deleteUserById(String id) {
         log.info("Deleting user by ID: {}", id);
         userRepo.deleteById(id);
+        revokedUserRegistry.revoke(id);
+        refreshTokenStore.revokeAll(id);
         log.info("User deleted successfully.");
     }
 
+    /**
+     * Invalidates tokens already issued to the user; call after a change to anything a token carries.
+     */
+    public void revokeTokens(String id) {
+        log.info("Revoking issued tokens for user ID: {}", id);
+        revokedUserRegistry.revoke(id);
+        refreshTokenStore.revokeAll(id);
+    }
+
     @Cacheable(value = "userDetails", key = "#username", unless="#result == null")
     public Optional<User> findByUsername(String username) {
-        log.info("Searching for user by username: {}", username);
+        log.debug("Searching for user by username: {}", username);
         Optional<User> userOptional = userRepo.findByUsername(username);
         if (userOptional.isPresent()) {
-            log.info("User found with username: {}", username);
+            log.debug("User found with username: {}", username);
         } else {
             log.warn("User not found with username: {}", username);
         }
         return userOptional;
     }
-}
\ No newline at end of file
+
+    private void evictAll(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
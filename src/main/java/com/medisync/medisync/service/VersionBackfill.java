@@ -0,0 +1,49 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off migration that sets {@code version} to 0 on users and appointments written before the field
+ * existed. Without it, saving such a document would be taken for an insert of a new one. A single
+ * multi-update per collection; re-running it only matches documents that still lack the field.
+ */
+@Slf4j
+@Component
+public class VersionBackfill {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public VersionBackfill(MongoTemplate mongoTemplate,
+                           @Value("${version.backfill.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            backfill(Appointment.class);
+            backfill(User.class);
+        }
+    }
+
+    public long backfill(Class<?> entityType) {
+        long updated = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L), entityType).getModifiedCount();
+        if (updated > 0) {
+            log.info("Backfilled version on {} {} documents", updated, entityType.getSimpleName());
+        }
+        return updated;
+    }
+}
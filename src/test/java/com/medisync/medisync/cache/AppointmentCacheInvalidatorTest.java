@@ -0,0 +1,86 @@
+package com.medisync.medisync.cache;
+
+import com.medisync.medisync.entity.Appointment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AppointmentCacheInvalidatorTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private ValueOperations<String, String> valueOperations;
+    private AppointmentCacheInvalidator invalidator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("appointments", "patientAppointments", "doctorAppointments");
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        invalidator = new AppointmentCacheInvalidator(cacheManager, redisTemplate, Duration.ofMinutes(1));
+
+        for (String user : List.of("p1", "p2", "p3")) {
+            cacheManager.getCache("patientAppointments").put(user, List.of());
+        }
+        for (String user : List.of("d1", "d2", "d3")) {
+            cacheManager.getCache("doctorAppointments").put(user, List.of());
+        }
+    }
+
+    @Test
+    void reassignmentEvictsOldAndNewOwnersOnly() {
+        invalidator.onSaved(appointment("a1", "p1", "d1"), appointment("a1", "p2", "d2"));
+
+        assertNull(cacheManager.getCache("patientAppointments").get("p1"));
+        assertNull(cacheManager.getCache("patientAppointments").get("p2"));
+        assertNotNull(cacheManager.getCache("patientAppointments").get("p3"));
+        assertNull(cacheManager.getCache("doctorAppointments").get("d1"));
+        assertNull(cacheManager.getCache("doctorAppointments").get("d2"));
+        assertNotNull(cacheManager.getCache("doctorAppointments").get("d3"));
+        verify(valueOperations).increment("appointmentPages:generation:*");
+        verify(valueOperations).increment("appointmentPages:generation:d1");
+        verify(valueOperations).increment("appointmentPages:generation:d2");
+    }
+
+    @Test
+    void deleteEvictsAppointmentEntry() {
+        cacheManager.getCache("appointments").put("a1", appointment("a1", "p1", "d1"));
+        cacheManager.getCache("appointments").put("a2", appointment("a2", "p3", "d3"));
+
+        invalidator.onDeleted(appointment("a1", "p1", "d1"));
+
+        assertNull(cacheManager.getCache("appointments").get("a1"));
+        assertNotNull(cacheManager.getCache("appointments").get("a2"));
+    }
+
+    @Test
+    void pageGenerationIsReadFromRedisOnceAndFollowsLocalBumps() {
+        when(valueOperations.get("appointmentPages:generation:d1")).thenReturn("4");
+        when(valueOperations.increment("appointmentPages:generation:d1")).thenReturn(5L);
+
+        assertEquals("4", invalidator.pageGeneration("d1"));
+        assertEquals("4", invalidator.pageGeneration("d1"));
+        verify(valueOperations, times(1)).get("appointmentPages:generation:d1");
+
+        invalidator.onSaved(null, appointment("a1", "p1", "d1"));
+        assertEquals("5", invalidator.pageGeneration("d1"));
+        verify(valueOperations, times(1)).get("appointmentPages:generation:d1");
+    }
+
+    private static Appointment appointment(String id, String patientId, String doctorId) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setPatientId(patientId);
+        appointment.setDoctorId(doctorId);
+        return appointment;
+    }
+}
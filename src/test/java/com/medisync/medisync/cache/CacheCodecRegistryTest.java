@@ -0,0 +1,96 @@
+package com.medisync.medisync.cache;
+
+import com.medisync.medisync.config.RedisConfig;
+import com.medisync.medisync.dto.AppointmentPage;
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Role;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheCodecRegistryTest {
+
+    private final CacheCodecRegistry registry = new CacheCodecRegistry(1024)
+            .register("userDetails", 1, CacheCodecs.USER)
+            .register("appointmentPages", 1, CacheCodecs.APPOINTMENT_PAGE)
+            .register("patientAppointments", 1, CacheCodecs.listOf(CacheCodecs.APPOINTMENT));
+
+    @Test
+    void roundTripsUsersWithNullFields() {
+        User user = new User();
+        user.setId("dr-alice"); // not an ObjectId
+        user.setUsername("dr.alice");
+        user.setRole(Role.DOCTOR);
+        RedisSerializer<Object> serializer = registry.serializer("userDetails");
+
+        assertEquals(user, serializer.deserialize(serializer.serialize(user)));
+    }
+
+    @Test
+    void compressesLargeListsAndRestoresThem() {
+        List<Appointment> appointments = appointments(100);
+        RedisSerializer<Object> serializer = registry.serializer("patientAppointments");
+
+        byte[] bytes = serializer.serialize(appointments);
+
+        assertEquals(1, bytes[2], "compressed flag");
+        assertEquals(appointments, serializer.deserialize(bytes));
+        assertTrue(bytes.length * 10 < RedisConfig.jsonCacheSerializer().serialize(appointments).length,
+                "binary " + bytes.length + " bytes");
+    }
+
+    @Test
+    void leavesSmallValuesUncompressed() {
+        AppointmentPage page = new AppointmentPage(appointments(1), null);
+        RedisSerializer<Object> serializer = registry.serializer("appointmentPages");
+
+        byte[] bytes = serializer.serialize(page);
+
+        assertEquals(0, bytes[2]);
+        assertEquals(page, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void keepsStampsOfCoalescedEntries() {
+        StampedValue stamped = new StampedValue(appointments(100), 1_700_000_000_000L, 42);
+        RedisSerializer<Object> serializer = registry.serializer("patientAppointments");
+
+        assertEquals(stamped, serializer.deserialize(serializer.serialize(stamped)));
+    }
+
+    @Test
+    void treatsEntriesOfOtherSchemasAsMisses() {
+        List<Appointment> appointments = appointments(3);
+        byte[] version1 = registry.serializer("patientAppointments").serialize(appointments);
+        RedisSerializer<Object> version2 = new CacheCodecRegistry(1024)
+                .register("patientAppointments", 2, CacheCodecs.listOf(CacheCodecs.APPOINTMENT))
+                .serializer("patientAppointments");
+
+        assertNull(version2.deserialize(version1));
+        assertNull(version2.deserialize(RedisConfig.jsonCacheSerializer().serialize(appointments)));
+        assertNull(version2.deserialize(RedisSerializer.java().serialize(new ArrayList<>(appointments))));
+    }
+
+    private static List<Appointment> appointments(int count) {
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId(String.format("65f1c0ffee00000000%06d", i));
+            appointment.setPatientId("65f1c0ffee0000000000beef");
+            appointment.setDoctorId("65f1c0ffee0000000000abcd");
+            appointment.setReason("Follow-up consultation");
+            appointment.setStatus(Status.CONFIRMED);
+            appointment.setAppointmentDate("2025-03-14");
+            appointment.setAppointmentTime((9 + i % 9) + ":00");
+            appointment.setAppointmentAt(Appointment.toDateTime("2025-03-14", appointment.getAppointmentTime()));
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+}
@@ -0,0 +1,112 @@
+package com.medisync.medisync.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CoalescingCacheTest {
+
+    private ConcurrentMapCache remote;
+    private ValueOperations<String, String> valueOperations;
+    private CoalescingCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        remote = new ConcurrentMapCache("doctorAppointments");
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        CacheLoadCoordinator coordinator = new CacheLoadCoordinator(redisTemplate, Duration.ofSeconds(10),
+                Duration.ofMillis(200), Duration.ofMillis(10), 0.2, 1.0);
+        cache = new CoalescingCache(remote, coordinator, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("d1", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "appointments-of-d1";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("appointments-of-d1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertInstanceOf(StampedValue.class, remote.get("d1").get());
+        assertEquals("appointments-of-d1", cache.get("d1", String.class));
+    }
+
+    @Test
+    void reloadsStaleEntryOnceAndKeepsServingItMeanwhile() {
+        remote.put("d1", new StampedValue("old", System.currentTimeMillis() - 1, 5));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertEquals("old", cache.get("d1", () -> "new"));
+
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        assertEquals("new", cache.get("d1", () -> "new"));
+        assertEquals("new", cache.get("d1", () -> fail("fresh entry reloaded")));
+    }
+
+    @Test
+    void waitsForTheLeaseHolderBeforeLoadingItself() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        CompletableFuture.runAsync(() -> remote.put("d1", "loaded-elsewhere"),
+                CompletableFuture.delayedExecutor(30, TimeUnit.MILLISECONDS));
+
+        assertEquals("loaded-elsewhere", cache.get("d1", () -> fail("loaded despite lease")));
+        assertEquals("loaded-here", cache.get("d2", () -> "loaded-here"));
+    }
+
+    @Test
+    void loadsLocallyOnceTheLeaseWaitIsUpEvenWithALongPollInterval() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        CacheLoadCoordinator coordinator = new CacheLoadCoordinator(redisTemplate, Duration.ofSeconds(10),
+                Duration.ofMillis(100), Duration.ofSeconds(5), 0.2, 1.0);
+        CoalescingCache slowPolling = new CoalescingCache(remote, coordinator, Duration.ofMinutes(30));
+
+        long start = System.nanoTime();
+        assertEquals("loaded-here", slowPolling.get("d1", () -> "loaded-here"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "waited past the lease wait");
+    }
+
+    @Test
+    void loaderFailuresReachEveryWaiter() {
+        RuntimeException failure = new IllegalStateException("mongo down");
+
+        Exception thrown = assertThrows(RuntimeException.class, () -> cache.get("d1", () -> {
+            throw failure;
+        }));
+
+        assertSame(failure, thrown.getCause());
+        assertNull(remote.get("d1"));
+    }
+}
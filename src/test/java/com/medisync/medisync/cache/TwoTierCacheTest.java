@@ -0,0 +1,93 @@
+package com.medisync.medisync.cache;
+
+import com.medisync.medisync.config.RedisConfig;
+import com.medisync.medisync.entity.User;
+import io.micrometer.core.instrument.Tags;
+import com.medisync.medisync.config.RedisConfig;
+import com.medisync.medisync.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TwoTierCacheTest {
+
+    private ConcurrentMapCache remote;
+    private CacheInvalidationPublisher publisher;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("userDetails");
+        publisher = mock(CacheInvalidationPublisher.class);
+        cache = new TwoTierCache(remote, RedisConfig.jsonCacheSerializer(), 100, Duration.ofMinutes(1), publisher);
+    }
+
+    @Test
+    void servesRepeatedReadsFromLocalTier() {
+        remote.put("alice", "user-alice");
+
+        assertEquals("user-alice", cache.get("alice", String.class));
+        remote.evict("alice");
+        assertEquals("user-alice", cache.get("alice", String.class));
+
+        CacheTierStats stats = cache.stats();
+        assertEquals(1, stats.localHits());
+        assertEquals(1, stats.remoteHits());
+    }
+
+    @Test
+    void writesGoToBothTiersAndAreBroadcast() {
+        cache.put("alice", "v1");
+        assertEquals("v1", remote.get("alice").get());
+        verify(publisher).publishEvict("userDetails", "alice");
+
+        cache.evict("alice");
+        assertNull(cache.get("alice"));
+        assertNull(remote.get("alice"));
+    }
+
+    @Test
+    void remoteInvalidationDropsOnlyLocalCopy() {
+        cache.put("alice", "v1");
+        cache.evictLocal("alice");
+        remote.put("alice", "v2");
+
+        assertEquals("v2", cache.get("alice", String.class));
+    }
+
+    @Test
+    void callersNeverShareTheCachedInstance() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setPhoneNumber("555-0100");
+        cache.put("alice", user);
+        user.setPhoneNumber("555-0199");
+
+        User first = cache.get("alice", User.class);
+        first.setPhoneNumber("555-0142");
+
+        assertEquals("555-0100", cache.get("alice", User.class).getPhoneNumber());
+        assertNotSame(first, cache.get("alice", User.class));
+    }
+
+    @Test
+    void metersCountHitsInEitherTier() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TwoTierCacheMeterBinder(cache, Tags.empty()).bindTo(registry);
+        remote.put("alice", "user-alice");
+
+        cache.get("alice");
+        cache.get("alice");
+        cache.get("bob");
+
+        assertEquals(2, registry.get("cache.gets").tags("cache", "userDetails", "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.tier.gets").tags("tier", "local", "result", "hit").functionCounter().count());
+    }
+}
@@ -0,0 +1,33 @@
+package com.medisync.medisync.client;
+
+import com.medisync.medisync.dto.PaymentRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentClientTest {
+
+    @Test
+    void opensCircuitAfterRepeatedFailures() throws Exception {
+        PaymentClient client = new PaymentClient("http://127.0.0.1:1/api/payments", 4,
+                Duration.ofMillis(200), Duration.ofMillis(200), 2, 10, 50, Duration.ofMinutes(1), Duration.ofMillis(100), new StandardEnvironment());
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertThrows(Exception.class, () -> client.checkout(new PaymentRequest()));
+            }
+            assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> client.checkoutAsync(new PaymentRequest()).get());
+            assertInstanceOf(CallNotPermittedException.class, e.getCause());
+        } finally {
+            client.close();
+        }
+    }
+}
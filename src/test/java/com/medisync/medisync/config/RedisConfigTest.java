@@ -0,0 +1,38 @@
+package com.medisync.medisync.config;
+
+import com.medisync.medisync.cache.StampedValue;
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisConfigTest {
+
+    @Test
+    void jsonCacheSerializerRoundTripsAppointmentsWithTypedTime() {
+        Appointment appointment = new Appointment();
+        appointment.setId("a1");
+        appointment.setStatus(Status.CONFIRMED);
+        appointment.setAppointmentDate("2025-03-14");
+        appointment.setAppointmentTime("10:30");
+        appointment.setAppointmentAt(Appointment.toDateTime("2025-03-14", "10:30"));
+        GenericJackson2JsonRedisSerializer serializer = RedisConfig.jsonCacheSerializer();
+
+        Object restored = serializer.deserialize(serializer.serialize(appointment));
+
+        assertEquals(appointment, restored);
+    }
+
+    @Test
+    void jsonCacheSerializerRoundTripsStampedValuesOfCoalescedCachesWithoutCodec() {
+        Appointment appointment = new Appointment();
+        appointment.setId("a1");
+        appointment.setStatus(Status.PENDING);
+        StampedValue stamped = new StampedValue(appointment, 1_700_000_000_000L, 12);
+        GenericJackson2JsonRedisSerializer serializer = RedisConfig.jsonCacheSerializer();
+
+        assertEquals(stamped, serializer.deserialize(serializer.serialize(stamped)));
+    }
+}
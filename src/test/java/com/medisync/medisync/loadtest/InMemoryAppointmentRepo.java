@@ -0,0 +1,109 @@
+package com.medisync.medisync.loadtest;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.repository.AppointmentBeforeConvertCallback;
+import com.medisync.medisync.repository.AppointmentRepo;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+class InMemoryAppointmentRepo extends InMemoryMongoRepository<Appointment> implements AppointmentRepo {
+
+    private final AppointmentBeforeConvertCallback beforeConvert = new AppointmentBeforeConvertCallback();
+    // Stand in for the unique slotKey index.
+    private final Map<String, String> idsBySlotKey = new ConcurrentHashMap<>();
+    private final Map<String, String> slotKeysById = new ConcurrentHashMap<>();
+
+    InMemoryAppointmentRepo() {
+        super(Appointment::getId, Appointment::setId);
+    }
+
+    @Override
+    protected void beforeWrite(Appointment appointment) {
+        beforeConvert.onBeforeConvert(appointment, "appointments");
+        String slotKey = appointment.getSlotKey();
+        if (slotKey != null) {
+            String owner = idsBySlotKey.putIfAbsent(slotKey, appointment.getId());
+            if (owner != null && !owner.equals(appointment.getId())) {
+                throw new DuplicateKeyException("Duplicate slotKey " + slotKey);
+            }
+        }
+        String previous = slotKey != null ? slotKeysById.put(appointment.getId(), slotKey) : slotKeysById.remove(appointment.getId());
+        if (previous != null && !previous.equals(slotKey)) {
+            idsBySlotKey.remove(previous, appointment.getId());
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        String slotKey = slotKeysById.remove(id);
+        if (slotKey != null) {
+            idsBySlotKey.remove(slotKey, id);
+        }
+        super.deleteById(id);
+    }
+
+    @Override
+    public Optional<Appointment> patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        return patchDocument(id, expectedVersion, changes);
+    }
+
+    @Override
+    public List<Appointment> findByDoctorId(String doctorId) {
+        return filter(appointment -> doctorId.equals(appointment.getDoctorId()));
+    }
+
+    @Override
+    public List<Appointment> findByPatientId(String patientId) {
+        return filter(appointment -> patientId.equals(appointment.getPatientId()));
+    }
+
+    @Override
+    public List<Appointment> findByDoctorIdAndAppointmentDate(String doctorId, String appointmentDate) {
+        return filter(appointment -> doctorId.equals(appointment.getDoctorId()) && appointmentDate.equals(appointment.getAppointmentDate()));
+    }
+
+    @Override
+    public Stream<Appointment> streamAllBy() {
+        return findAll().stream();
+    }
+
+    @Override
+    public List<Appointment> findByDoctorIdAndAppointmentAtBetween(String doctorId, Range<LocalDateTime> range, Sort sort) {
+        return inRange(range, appointment -> doctorId.equals(appointment.getDoctorId()));
+    }
+
+    @Override
+    public List<Appointment> findByPatientIdAndAppointmentAtBetween(String patientId, Range<LocalDateTime> range, Sort sort) {
+        return inRange(range, appointment -> patientId.equals(appointment.getPatientId()));
+    }
+
+    @Override
+    public List<Appointment> findPage(String afterId, Status status, String doctorId, String appointmentDate, int limit) {
+        return (afterId != null ? documents.tailMap(afterId, false) : documents).values().stream()
+                .filter(appointment -> status == null || status == appointment.getStatus())
+                .filter(appointment -> doctorId == null || doctorId.equals(appointment.getDoctorId()))
+                .filter(appointment -> appointmentDate == null || appointmentDate.equals(appointment.getAppointmentDate()))
+                .limit(limit)
+                .toList();
+    }
+
+    // Schedules are always read in time order.
+    private List<Appointment> inRange(Range<LocalDateTime> range, Predicate<Appointment> owner) {
+        return documents.values().stream()
+                .filter(owner)
+                .filter(appointment -> appointment.getAppointmentAt() != null && range.contains(appointment.getAppointmentAt(), Comparator.naturalOrder()))
+                .sorted(Comparator.comparing(Appointment::getAppointmentAt))
+                .toList();
+    }
+}
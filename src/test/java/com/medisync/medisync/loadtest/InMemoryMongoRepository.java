@@ -0,0 +1,209 @@
+package com.medisync.medisync.loadtest;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Map-backed stand-in for a {@link MongoRepository}. Documents are kept in id order, which for generated
+ * ObjectIds is insertion order, like {@code _id} order in MongoDB. Query-by-example and sorted
+ * {@code findAll} are not supported.
+ */
+abstract class InMemoryMongoRepository<T> implements MongoRepository<T, String> {
+
+    protected final ConcurrentNavigableMap<String, T> documents = new ConcurrentSkipListMap<>();
+
+    private final Function<T, String> idGetter;
+    private final BiConsumer<T, String> idSetter;
+
+    protected InMemoryMongoRepository(Function<T, String> idGetter, BiConsumer<T, String> idSetter) {
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+    }
+
+    /**
+     * Hook for unique-index checks and write-time derived fields.
+     */
+    protected void beforeWrite(T document) {
+    }
+
+    /**
+     * Counterpart of the findAndModify-based {@code patch} methods: sets {@code changes} on the stored document
+     * and increments its {@code version}, unless {@code expectedVersion} is given and does not match.
+     */
+    protected synchronized Optional<T> patchDocument(String id, Long expectedVersion, Map<String, Object> changes) {
+        T document = documents.get(id);
+        if (document == null) {
+            return Optional.empty();
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(document);
+        Long version = (Long) wrapper.getPropertyValue("version");
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            return Optional.empty();
+        }
+        changes.forEach(wrapper::setPropertyValue);
+        wrapper.setPropertyValue("version", version == null ? 1L : version + 1);
+        beforeWrite(document);
+        return Optional.of(document);
+    }
+
+    protected List<T> filter(Predicate<T> predicate) {
+        return documents.values().stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        if (idGetter.apply(entity) == null) {
+            idSetter.accept(entity, new ObjectId().toHexString());
+        }
+        beforeWrite(entity);
+        documents.put(idGetter.apply(entity), entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        String id = idGetter.apply(entity);
+        if (id != null && documents.containsKey(id)) {
+            throw new DuplicateKeyException("Duplicate _id " + id);
+        }
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(documents.get(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(documents.values());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        documents.remove(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        documents.remove(idGetter.apply(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(documents::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        documents.clear();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        if (sort.isSorted()) {
+            throw new UnsupportedOperationException("Sorted findAll is not supported in memory");
+        }
+        return findAll();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            throw new UnsupportedOperationException("Sorted findAll is not supported in memory");
+        }
+        List<T> all = findAll();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all);
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw new UnsupportedOperationException("Query by example is not supported in memory");
+    }
+}
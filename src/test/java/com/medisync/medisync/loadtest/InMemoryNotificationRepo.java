@@ -0,0 +1,71 @@
+package com.medisync.medisync.loadtest;
+
+import com.medisync.medisync.entity.Notification;
+import com.medisync.medisync.repository.NotificationRepo;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+class InMemoryNotificationRepo extends InMemoryMongoRepository<Notification> implements NotificationRepo {
+
+    private static final Comparator<Notification> NEWEST_FIRST = Comparator
+            .comparing(Notification::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Notification::getId, Comparator.reverseOrder());
+
+    InMemoryNotificationRepo() {
+        super(Notification::getId, Notification::setId);
+    }
+
+    @Override
+    public long countByRecipientIdAndIsRead(String recipientId, boolean isRead) {
+        return documents.values().stream()
+                .filter(notification -> recipientId.equals(notification.getRecipientId()) && notification.isRead() == isRead)
+                .count();
+    }
+
+    @Override
+    public List<Notification> findFeed(String recipientId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        return documents.values().stream()
+                .filter(notification -> recipientId.equals(notification.getRecipientId()))
+                .filter(notification -> beforeTimestamp == null
+                        || notification.getTimestamp().isBefore(beforeTimestamp)
+                        || (notification.getTimestamp().isEqual(beforeTimestamp) && notification.getId().compareTo(beforeId) < 0))
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Notification> insertNew(List<Notification> notifications) {
+        List<Notification> inserted = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (notification.getId() == null || documents.putIfAbsent(notification.getId(), notification) == null) {
+                inserted.add(save(notification));
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public long markRead(String recipientId, Collection<String> notificationIds) {
+        long modified = 0;
+        for (String id : notificationIds) {
+            Notification notification = documents.get(id);
+            if (notification != null && recipientId.equals(notification.getRecipientId()) && !notification.isRead()) {
+                notification.setRead(true);
+                modified++;
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public int archiveRead(LocalDateTime cutoff, String archiveCollection, int limit) {
+        List<Notification> expired = documents.values().stream()
+                .filter(notification -> notification.isRead() && notification.getTimestamp().isBefore(cutoff))
+                .limit(limit)
+                .toList();
+        expired.forEach(this::delete);
+        return expired.size();
+    }
+}
@@ -0,0 +1,38 @@
+package com.medisync.medisync.loadtest;
+
+import com.medisync.medisync.entity.OutboxNotification;
+import com.medisync.medisync.repository.OutboxNotificationRepo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+class InMemoryOutboxNotificationRepo extends InMemoryMongoRepository<OutboxNotification> implements OutboxNotificationRepo {
+
+    InMemoryOutboxNotificationRepo() {
+        super(OutboxNotification::getId, OutboxNotification::setId);
+    }
+
+    @Override
+    public synchronized List<OutboxNotification> claimBatch(String owner, Instant now, Duration lease, int limit) {
+        List<OutboxNotification> claimed = new ArrayList<>();
+        documents.values().stream()
+                .filter(entry -> !entry.getNextAttemptAt().isAfter(now))
+                .filter(entry -> entry.getLockedUntil() == null || entry.getLockedUntil().isBefore(now))
+                .sorted(Comparator.comparing(OutboxNotification::getNextAttemptAt))
+                .limit(limit)
+                .forEach(entry -> {
+                    entry.setLockedBy(owner);
+                    entry.setLockedUntil(now.plus(lease));
+                    claimed.add(entry);
+                });
+        return claimed;
+    }
+
+    @Override
+    public void moveToDeadLetters(OutboxNotification entry) {
+        delete(entry);
+    }
+}
@@ -0,0 +1,148 @@
+package com.medisync.medisync.loadtest;
+
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single-process stand-in for the Redis commands the application uses: string values with
+ * GET/MGET/SET/GETDEL/INCRBY, sorted sets, the clamped DECRBY script of {@code RedisService}, the scripts of
+ * {@code LoginThrottle} and pub/sub, which is delivered
+ * synchronously to listeners registered with {@link #addListener}. Anything else fails loudly so a new
+ * Redis call shows up as a missing stand-in rather than silently doing nothing.
+ */
+class InMemoryRedisTemplate extends StringRedisTemplate {
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, List<MessageListener>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Double>> sortedSets = new ConcurrentHashMap<>();
+    private final ValueOperations<String, String> valueOperations = valueOperations();
+    private final ZSetOperations<String, String> zSetOperations = zSetOperations();
+
+    @Override
+    public void afterPropertiesSet() {
+        // No connection factory to check.
+    }
+
+    void addListener(String channel, MessageListener listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public ZSetOperations<String, String> opsForZSet() {
+        return zSetOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return values.remove(key) != null;
+    }
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+        List<MessageListener> subscribers = listeners.getOrDefault(channel, List.of());
+        DefaultMessage payload = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+        subscribers.forEach(listener -> listener.onMessage(payload, null));
+        return (long) subscribers.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        String source = script.getScriptAsString();
+        if (source.contains("DECRBY") && keys.size() == 1) {
+            long delta = Long.parseLong(String.valueOf(args[0]));
+            String result = values.compute(keys.get(0), (key, current) ->
+                    String.valueOf(Math.max(0, (current != null ? Long.parseLong(current) : 0) - delta)));
+            return (T) Long.valueOf(result);
+        }
+        if (source.contains("INCR") && keys.size() == 1) {
+            return (T) Long.valueOf(values.merge(keys.get(0), "1", (current, one) -> String.valueOf(Long.parseLong(current) + 1)));
+        }
+        if (source.contains("EXISTS") && keys.size() == 1) {
+            String result = values.computeIfPresent(keys.get(0), (key, current) -> String.valueOf(Long.parseLong(current) - 1));
+            return (T) Long.valueOf(result != null ? Long.parseLong(result) : 0);
+        }
+        if (source.contains("DEL") && keys.size() == 1) {
+            return (T) Long.valueOf(values.remove(keys.get(0), String.valueOf(args[0])) ? 1 : 0);
+        }
+        throw new UnsupportedOperationException("No in-memory stand-in for script: " + source);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueOperations<String, String> valueOperations() {
+        return (ValueOperations<String, String>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InMemoryValueOperations";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "get" -> values.get((String) args[0]);
+                    case "getAndDelete" -> values.remove((String) args[0]);
+                    // Expiry is not modelled; leases are always released after the load.
+                    case "setIfAbsent" -> values.putIfAbsent((String) args[0], (String) args[1]) == null;
+                    case "multiGet" -> ((Collection<?>) args[0]).stream().map(key -> values.get((String) key)).toList();
+                    case "set" -> {
+                        values.put((String) args[0], (String) args[1]);
+                        yield null;
+                    }
+                    case "increment" -> {
+                        long delta = args.length > 1 ? ((Number) args[1]).longValue() : 1;
+                        yield Long.valueOf(values.merge((String) args[0], String.valueOf(delta),
+                                (current, d) -> String.valueOf(Long.parseLong(current) + Long.parseLong(d))));
+                    }
+                    default -> throw new UnsupportedOperationException("No in-memory stand-in for ValueOperations." + method.getName());
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private ZSetOperations<String, String> zSetOperations() {
+        return (ZSetOperations<String, String>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ZSetOperations.class}, (proxy, method, args) -> {
+                    Map<String, Double> set = args != null && args.length > 0 && args[0] instanceof String key
+                            ? sortedSets.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                            : Map.of();
+                    return switch (method.getName()) {
+                        case "toString" -> "InMemoryZSetOperations";
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "add" -> set.put((String) args[1], (Double) args[2]) == null;
+                        case "score" -> set.get((String) args[1]);
+                        case "zCard" -> (long) set.size();
+                        case "rangeByScore" -> {
+                            double min = ((Number) args[1]).doubleValue();
+                            double max = ((Number) args[2]).doubleValue();
+                            Set<String> members = new LinkedHashSet<>();
+                            set.forEach((member, score) -> {
+                                if (score >= min && score <= max) {
+                                    members.add(member);
+                                }
+                            });
+                            yield members;
+                        }
+                        case "removeRangeByScore" -> {
+                            double min = ((Number) args[1]).doubleValue();
+                            double max = ((Number) args[2]).doubleValue();
+                            int before = set.size();
+                            set.values().removeIf(score -> score >= min && score <= max);
+                            yield (long) (before - set.size());
+                        }
+                        default -> throw new UnsupportedOperationException("No in-memory stand-in for ZSetOperations." + method.getName());
+                    };
+                });
+    }
+}
@@ -0,0 +1,75 @@
+package com.medisync.medisync.loadtest;
+
+import com.medisync.medisync.dto.DoctorSummary;
+import com.medisync.medisync.entity.Role;
+import com.medisync.medisync.entity.User;
+import com.medisync.medisync.repository.UserRepo;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+class InMemoryUserRepo extends InMemoryMongoRepository<User> implements UserRepo {
+
+    // Stands in for the unique username index.
+    private final Map<String, String> idsByUsername = new ConcurrentHashMap<>();
+
+    InMemoryUserRepo() {
+        super(User::getId, User::setId);
+    }
+
+    @Override
+    protected void beforeWrite(User user) {
+        String owner = idsByUsername.putIfAbsent(user.getUsername(), user.getId());
+        if (owner != null && !owner.equals(user.getId())) {
+            throw new DuplicateKeyException("Duplicate username " + user.getUsername());
+        }
+    }
+
+    @Override
+    public Optional<User> patch(String id, Long expectedVersion, Map<String, Object> changes) {
+        String previousUsername = findById(id).map(User::getUsername).orElse(null);
+        Optional<User> patched = patchDocument(id, expectedVersion, changes);
+        patched.filter(user -> !user.getUsername().equals(previousUsername))
+                .ifPresent(user -> idsByUsername.remove(previousUsername, id));
+        return patched;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        findById(id).ifPresent(user -> idsByUsername.remove(user.getUsername()));
+        super.deleteById(id);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        String id = idsByUsername.get(username);
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    @Override
+    public List<DoctorSummary> findByRole(Role role, Pageable pageable) {
+        return findByRoleAndUsernameStartingWith(role, "", pageable);
+    }
+
+    @Override
+    public List<DoctorSummary> findByRoleAndUsernameStartingWith(Role role, String usernamePrefix, Pageable pageable) {
+        return documents.values().stream()
+                .filter(user -> user.getRole() == role && user.getUsername().startsWith(usernamePrefix))
+                .sorted(Comparator.comparing(User::getUsername))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(user -> new DoctorSummary(user.getId(), user.getUsername(), user.getPhoneNumber()))
+                .toList();
+    }
+
+    @Override
+    public Stream<User> streamAllBy() {
+        return findAll().stream();
+    }
+}
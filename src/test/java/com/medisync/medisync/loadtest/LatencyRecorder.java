@@ -0,0 +1,58 @@
+package com.medisync.medisync.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects latencies of one endpoint. Samples are appended under a lock into a growing array; the
+ * report sorts a copy, so percentiles are exact rather than bucketed.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+    private final Map<String, Long> failures = new TreeMap<>();
+
+    /**
+     * @param failure short reason such as {@code HTTP 503}, or {@code null} for a successful request
+     */
+    synchronized void record(long nanos, String failure) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (failure != null) {
+            errors++;
+            failures.merge(failure, 1L, Long::sum);
+        }
+    }
+
+    synchronized String summary(String name, double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format("%-22s %8d %7d %9.1f %9.2f %9.2f %9.2f",
+                name, count, errors, count / seconds, millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 1.0));
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized long errors() {
+        return errors;
+    }
+
+    synchronized Map<String, Long> failures() {
+        return new TreeMap<>(failures);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,187 @@
+package com.medisync.medisync.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Open-loop traffic generator: requests are started at a fixed target rate whether or not earlier ones
+ * have finished, and each latency is measured from the moment the request was due, so a slow server
+ * shows up as latency instead of as a lower request rate. Each request picks an operation from a
+ * weighted mix and a random logged-in patient.
+ */
+@Slf4j
+public class LoadScenario {
+
+    public enum Operation {
+        LOGIN(5), LIST_DOCTORS(25), BOOK(10), UNREAD_COUNT(40), NOTIFICATION_FEED(20);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public record Account(String id, String username, String password) {
+    }
+
+    private final String baseUrl;
+    private final List<Account> patients;
+    private final List<Account> doctors;
+    private final int requestsPerSecond;
+    private final Duration duration;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newFixedThreadPool(64);
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(workers)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public LoadScenario(String baseUrl, List<Account> patients, List<Account> doctors, int requestsPerSecond, Duration duration) {
+        this.baseUrl = baseUrl;
+        this.patients = patients;
+        this.doctors = doctors;
+        this.requestsPerSecond = requestsPerSecond;
+        this.duration = duration;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+    }
+
+    /**
+     * Logs every patient in (not measured), then replays the mix and returns the per-operation report.
+     */
+    public Map<Operation, LatencyRecorder> run() throws Exception {
+        for (Account patient : patients) {
+            tokens.put(patient.id(), login(patient).get());
+        }
+
+        Operation[] mix = weightedMix();
+        long intervalNanos = 1_000_000_000L / requestsPerSecond;
+        long total = duration.toSeconds() * requestsPerSecond;
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+            inFlight.add(execute(operation, patients.get(ThreadLocalRandom.current().nextInt(patients.size())))
+                    .handle((status, error) -> {
+                        String failure = null;
+                        if (error != null) {
+                            failure = error.getClass().getSimpleName();
+                        } else if (status >= 400 && !(operation == Operation.BOOK && status == 409)) {
+                            failure = "HTTP " + status;
+                        }
+                        recorders.get(operation).record(System.nanoTime() - due, failure);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        workers.shutdown();
+
+        StringBuilder report = new StringBuilder(String.format("%n%-22s %8s %7s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        recorders.forEach((operation, recorder) -> report.append(recorder.summary(operation.name(), seconds)).append('\n'));
+        recorders.forEach((operation, recorder) -> {
+            if (recorder.errors() > 0) {
+                report.append(String.format("%s failures: %s%n", operation, recorder.failures()));
+            }
+        });
+        log.info("Load test at {} req/s for {}:{}", requestsPerSecond, duration, report);
+        return recorders;
+    }
+
+    private CompletableFuture<Integer> execute(Operation operation, Account patient) {
+        return switch (operation) {
+            case LOGIN -> login(patient).thenApply(token -> {
+                tokens.put(patient.id(), token);
+                return 200;
+            });
+            case LIST_DOCTORS -> send(get("/user/doctors?page=0&size=20", patient));
+            case BOOK -> send(post("/appointment", patient, bookingFor(patient)));
+            case UNREAD_COUNT -> send(get("/notification/unread-count", patient));
+            case NOTIFICATION_FEED -> send(get("/notification/feed?limit=20", patient));
+        };
+    }
+
+    private CompletableFuture<String> login(Account account) {
+        Map<String, String> body = Map.of("username", account.username(), "password", account.password());
+        return httpClient.sendAsync(json(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login")), body).build(),
+                        HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Login failed for " + account.username() + ": " + response.statusCode());
+                    }
+                    try {
+                        JsonNode node = objectMapper.readTree(response.body());
+                        return node.get("jwt").asText();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private Map<String, String> bookingFor(Account patient) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = random.nextInt(18);
+        return Map.of(
+                "patientId", patient.id(),
+                "doctorId", doctors.get(random.nextInt(doctors.size())).id(),
+                "reason", "Consultation",
+                "status", "PENDING",
+                "appointmentDate", LocalDate.now().plusDays(1 + random.nextInt(60)).toString(),
+                "appointmentTime", (9 + slot / 2) + (slot % 2 == 0 ? ":00" : ":30"));
+    }
+
+    private HttpRequest get(String path, Account patient) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), patient).GET().build();
+    }
+
+    private HttpRequest post(String path, Account patient, Object body) {
+        return json(authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), patient), body).build();
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder, Account patient) {
+        return builder.header("Authorization", "Bearer " + tokens.get(patient.id())).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder, Object body) {
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private CompletableFuture<Integer> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private static Operation[] weightedMix() {
+        List<Operation> mix = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            for (int i = 0; i < operation.weight; i++) {
+                mix.add(operation);
+            }
+        }
+        return mix.toArray(Operation[]::new);
+    }
+}
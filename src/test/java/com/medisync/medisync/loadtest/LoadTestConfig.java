@@ -0,0 +1,94 @@
+package com.medisync.medisync.loadtest;
+
+import com.medisync.medisync.cache.CacheInvalidationPublisher;
+import com.medisync.medisync.cache.CacheLoadCoordinator;
+import com.medisync.medisync.cache.TwoTierCacheManager;
+import com.medisync.medisync.config.RedisConfig;
+import com.medisync.medisync.repository.AppointmentRepo;
+import com.medisync.medisync.repository.NotificationRepo;
+import com.medisync.medisync.repository.OutboxNotificationRepo;
+import com.medisync.medisync.repository.UserRepo;
+import com.medisync.medisync.security.RevokedUserRegistry;
+import com.medisync.medisync.security.TokenRevocationList;
+import com.medisync.medisync.service.NotificationStreamService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces MongoDB and Redis with in-process stand-ins for the {@code loadtest} profile, so the real
+ * controllers, filters and services can be driven without any external service. The two-tier cache
+ * keeps its Caffeine tier; only the shared tier becomes a local map.
+ */
+@Profile("loadtest")
+@Configuration
+public class LoadTestConfig {
+
+    @Bean
+    public UserRepo userRepo() {
+        return new InMemoryUserRepo();
+    }
+
+    @Bean
+    public AppointmentRepo appointmentRepo() {
+        return new InMemoryAppointmentRepo();
+    }
+
+    @Bean
+    public NotificationRepo notificationRepo() {
+        return new InMemoryNotificationRepo();
+    }
+
+    @Bean
+    public OutboxNotificationRepo outboxNotificationRepo() {
+        return new InMemoryOutboxNotificationRepo();
+    }
+
+    @Bean
+    public InMemoryTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+
+    @Bean
+    public InMemoryRedisTemplate stringRedisTemplate() {
+        return new InMemoryRedisTemplate();
+    }
+
+    @Bean
+    public TwoTierCacheManager cacheManager(InMemoryRedisTemplate redisTemplate,
+                                            @Value("${cache.local.names:userDetails}") List<String> localCacheNames,
+                                            @Value("${cache.local.max-size:10000}") long localMaxSize,
+                                            @Value("${cache.local.ttl:60s}") Duration localTtl,
+                                            @Value("${cache.coalescing.names:appointments,appointmentPages,patientAppointments,doctorAppointments,allUsers,doctorDirectory}") Set<String> coalescedCacheNames) {
+        // In-memory caches never expire, so coalescing only merges concurrent loads of missing entries.
+        Map<String, Duration> coalescedCaches = new HashMap<>();
+        coalescedCacheNames.forEach(cacheName -> coalescedCaches.put(cacheName, Duration.ZERO));
+        return new TwoTierCacheManager(new ConcurrentMapCacheManager(), localCacheNames, localMaxSize, localTtl,
+                cacheName -> RedisConfig.jsonCacheSerializer(), new CacheInvalidationPublisher(redisTemplate),
+                new CacheLoadCoordinator(redisTemplate, Duration.ofSeconds(10), Duration.ofSeconds(3), Duration.ofMillis(50), 0.2, 1.0),
+                coalescedCaches);
+    }
+
+    @Bean
+    public SmartInitializingSingleton loadTestSubscriptions(InMemoryRedisTemplate redisTemplate,
+                                                            TwoTierCacheManager cacheManager,
+                                                            RevokedUserRegistry revokedUserRegistry,
+                                                            TokenRevocationList tokenRevocationList,
+                                                            NotificationStreamService notificationStreamService) {
+        return () -> {
+            redisTemplate.addListener(CacheInvalidationPublisher.CHANNEL, cacheManager);
+            redisTemplate.addListener(RevokedUserRegistry.CHANNEL, revokedUserRegistry);
+            redisTemplate.addListener(TokenRevocationList.CHANNEL, tokenRevocationList);
+            redisTemplate.addListener(NotificationStreamService.CHANNEL, notificationStreamService);
+        };
+    }
+}
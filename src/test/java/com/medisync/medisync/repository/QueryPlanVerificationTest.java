@@ -0,0 +1,121 @@
+package com.medisync.medisync.repository;
+
+import com.medisync.medisync.config.MongoIndexConfig;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every derived query method of every repository against a live MongoDB with the profiler on and
+ * fails if any of them was answered by a collection scan. Methods without criteria (e.g. {@code streamAllBy})
+ * are expected to scan and are skipped.
+ * <p>
+ * Needs a reachable database: {@code mvn test -Dtest=QueryPlanVerificationTest -DverifyQueryPlans=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "verifyQueryPlans", matches = "true")
+public class QueryPlanVerificationTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @Test
+    void derivedQueriesDoNotScanCollections() throws Exception {
+        mongoIndexConfig.ensureIndexes();
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> collectionScans = new ArrayList<>();
+
+        mongoTemplate.executeCommand(new Document("profile", 2));
+        try {
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+                String namespace = mongoTemplate.getDb().getName() + "." + mongoTemplate.getCollectionName(domainType);
+
+                for (Method method : information.getQueryMethods()) {
+                    if (!new PartTree(method.getName(), domainType).getParts().iterator().hasNext()) {
+                        continue;
+                    }
+                    Instant before = Instant.now();
+                    Object result = method.invoke(repository, sampleArguments(method));
+                    if (result instanceof Stream<?> stream) {
+                        stream.close();
+                    }
+
+                    Document profile = mongoTemplate.getCollection("system.profile")
+                            .find(new Document("ns", namespace).append("ts", new Document("$gte", Date.from(before.minusSeconds(1)))))
+                            .sort(new Document("ts", -1))
+                            .first();
+                    assertNotNull(profile, "No profiler entry for " + method);
+                    String planSummary = profile.getString("planSummary");
+                    if (planSummary == null || planSummary.contains("COLLSCAN")) {
+                        collectionScans.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName() + " -> " + planSummary);
+                    }
+                }
+            }
+        } finally {
+            mongoTemplate.executeCommand(new Document("profile", 0));
+        }
+
+        assertTrue(collectionScans.isEmpty(), "Queries without a usable index: " + collectionScans);
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == String.class) {
+                arguments[i] = "000000000000000000000000";
+            } else if (type.isEnum()) {
+                arguments[i] = type.getEnumConstants()[0];
+            } else if (type == Range.class) {
+                arguments[i] = Range.rightOpen(LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+            } else if (type == Sort.class) {
+                arguments[i] = Sort.unsorted();
+            } else if (Pageable.class.isAssignableFrom(type)) {
+                arguments[i] = PageRequest.of(0, 10);
+            } else if (type == LocalDateTime.class) {
+                arguments[i] = LocalDateTime.now();
+            } else if (type == Instant.class) {
+                arguments[i] = Instant.now();
+            } else if (type == int.class || type == Integer.class) {
+                arguments[i] = 10;
+            } else if (type == boolean.class || type == Boolean.class) {
+                arguments[i] = false;
+            } else if (type == long.class || type == Long.class) {
+                arguments[i] = 10L;
+            } else if (Collection.class.isAssignableFrom(type)) {
+                arguments[i] = List.of();
+            } else {
+                throw new IllegalStateException("No sample argument for " + type + " in " + method);
+            }
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,57 @@
+package com.medisync.medisync.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "q6S3fTt0b9yqZxKp2kVnQ1m8Yw4eR7uJ5hG3dA0sLcE=";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(60_000);
+    }
+
+    @Test
+    void verifyReturnsSubjectRoleAndExpiry() {
+        long before = System.currentTimeMillis();
+        String token = jwtUtil.generateToken("alice", "ROLE_DOCTOR");
+
+        JwtClaims claims = jwtUtil.verify(token);
+
+        assertTrue(claims.issuedAt().getTime() >= before, "issue time is kept to the millisecond");
+        assertEquals("alice", claims.subject());
+        assertEquals("ROLE_DOCTOR", claims.role());
+        assertNotNull(claims.tokenId());
+        assertNotEquals(claims.tokenId(), jwtUtil.verify(jwtUtil.generateToken("alice", "ROLE_DOCTOR")).tokenId());
+        assertFalse(claims.isExpired());
+        assertSame(claims, jwtUtil.verify(token));
+        assertTrue(jwtUtil.validateToken(token, "alice"));
+    }
+
+    @Test
+    void verifyRejectsTamperedAndExpiredTokens() {
+        String token = jwtUtil.generateToken("alice", "ROLE_PATIENT");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+
+        JwtUtil expiring = newJwtUtil(-1_000);
+        String expired = expiring.generateToken("alice", "ROLE_PATIENT");
+        assertThrows(JwtException.class, () -> expiring.verify(expired));
+    }
+
+    private static JwtUtil newJwtUtil(long expiration) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(util, "EXPIRATION_TIME", expiration);
+        ReflectionTestUtils.setField(util, "verifiedCacheSize", 100L);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,94 @@
+package com.medisync.medisync.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LoginThrottleTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        throttle = new LoginThrottle(redisTemplate, 3, 10, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void countsTheAttemptAtomicallyBeforeChecking() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("login:failures:user:alice")), eq("900000")))
+                .thenReturn(3L, 4L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("login:failures:ip:10.0.0.1")), eq("900000")))
+                .thenReturn(1L, 2L);
+
+        assertTrue(throttle.tryAcquire("alice", "10.0.0.1"));
+        assertFalse(throttle.tryAcquire("alice", "10.0.0.1"));
+        verify(valueOperations, never()).multiGet(anyCollection());
+    }
+
+    @Test
+    void everyRedisCallTouchesOneKeySoItWorksOnACluster() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any())).thenReturn(1L);
+
+        throttle.tryAcquire("alice", "10.0.0.1");
+        throttle.recordSuccess("alice", "10.0.0.1");
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), argThat(keys -> keys.size() == 1), any());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("login:failures:ip:10.0.0.1")));
+        verify(redisTemplate).delete("login:failures:user:alice");
+    }
+
+    @Test
+    void concurrentBurstGetsOnlyTheLimitThroughWhileRedisIsDown() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any())).thenThrow(new RedisConnectionFailureException("down"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String address = "10.0.0." + i;
+                attempts.add(executor.submit(() -> throttle.tryAcquire("alice", address)));
+            }
+            int allowed = 0;
+            for (Future<Boolean> attempt : attempts) {
+                allowed += attempt.get() ? 1 : 0;
+            }
+            assertEquals(3, allowed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void successClearsUsernameAndTakesItselfOffTheAddress() {
+        RedisConnectionFailureException down = new RedisConnectionFailureException("down");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any())).thenThrow(down);
+        when(redisTemplate.execute(any(RedisScript.class), anyList())).thenThrow(down);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(throttle.tryAcquire("alice", "10.0.0.1"));
+        }
+        assertFalse(throttle.tryAcquire("alice", "10.0.0.1"));
+
+        throttle.recordSuccess("alice", "10.0.0.1");
+        assertTrue(throttle.tryAcquire("alice", "10.0.0.1"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.medisync.medisync.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RevokedUserRegistryTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private ZSetOperations<String, String> zSetOperations;
+    private RevokedUserRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        zSetOperations = mock(ZSetOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        registry = new RevokedUserRegistry(redisTemplate, 60_000);
+    }
+
+    @Test
+    void rejectsOnlyTokensIssuedBeforeRevocation() {
+        Date issuedBefore = new Date(System.currentTimeMillis() - 5_000);
+
+        assertFalse(registry.isRevoked("u1", issuedBefore));
+        registry.revoke("u1");
+
+        assertTrue(registry.isRevoked("u1", issuedBefore));
+        assertFalse(registry.isRevoked("u1", new Date(System.currentTimeMillis() + 2_000)));
+        assertFalse(registry.isRevoked("u2", issuedBefore));
+        verify(valueOperations).set(startsWith("auth:access-not-before:u1"), anyString(), eq(Duration.ofMillis(60_000)));
+        verify(zSetOperations).add(eq("auth:revoked-users"), eq("u1"), anyDouble());
+        verify(redisTemplate).convertAndSend(eq(RevokedUserRegistry.CHANNEL), startsWith("u1|"));
+    }
+
+    @Test
+    void tokenIssuedLaterInTheSameSecondIsAccepted() {
+        long revokedAt = System.currentTimeMillis() - 10_000;
+        revokedAt -= revokedAt % 1000 - 200;
+        registry.onMessage(new DefaultMessage(RevokedUserRegistry.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("u1|" + revokedAt).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(registry.isRevoked("u1", new Date(revokedAt - 1)));
+        assertFalse(registry.isRevoked("u1", new Date(revokedAt + 1)));
+    }
+
+    @Test
+    void reloadPicksUpRevocationsMissedWhileUnsubscribed() {
+        long revokedAt = System.currentTimeMillis() - 1_000;
+        when(zSetOperations.rangeByScore(eq("auth:revoked-users"), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+                .thenReturn(Set.of("u3"));
+        when(valueOperations.multiGet(List.of("auth:access-not-before:u3"))).thenReturn(List.of(String.valueOf(revokedAt)));
+
+        registry.reload();
+
+        verify(zSetOperations).removeRangeByScore(eq("auth:revoked-users"), eq(0.0), anyDouble());
+        assertTrue(registry.isRevoked("u3", new Date(revokedAt - 1)));
+        assertFalse(registry.isRevoked("u3", new Date(revokedAt)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.medisync.medisync.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocationListTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSetOperations;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        revocationList = new TokenRevocationList(redisTemplate, 1_000, 0.001, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void unrevokedTokensAreAnsweredWithoutRedis() {
+        assertFalse(revocationList.isRevoked("jti-1"));
+        verify(zSetOperations, never()).score(any(), any());
+    }
+
+    @Test
+    void revokedTokensAreConfirmedAgainstRedis() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+        revocationList.revoke("jti-1", expiresAt);
+        verify(zSetOperations).add("auth:revoked-tokens", "jti-1", expiresAt.getTime());
+        verify(redisTemplate).convertAndSend(TokenRevocationList.CHANNEL, "jti-1");
+
+        when(zSetOperations.score("auth:revoked-tokens", "jti-1")).thenReturn((double) expiresAt.getTime());
+        assertTrue(revocationList.isRevoked("jti-1"));
+
+        when(zSetOperations.score("auth:revoked-tokens", "jti-1")).thenThrow(new RedisConnectionFailureException("down"));
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void rebuildMirrorsTheRedisSet() {
+        when(zSetOperations.zCard("auth:revoked-tokens")).thenReturn(1L);
+        when(zSetOperations.rangeByScore(eq("auth:revoked-tokens"), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+                .thenReturn(Set.of("jti-2"));
+        when(zSetOperations.score("auth:revoked-tokens", "jti-2")).thenReturn(1.0);
+
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("jti-2"));
+        verify(zSetOperations).removeRangeByScore(eq("auth:revoked-tokens"), eq(0.0), anyDouble());
+    }
+
+    @Test
+    void resubscribingRebuildsTheFilter() throws Exception {
+        when(zSetOperations.zCard("auth:revoked-tokens")).thenReturn(1L);
+        when(zSetOperations.rangeByScore(eq("auth:revoked-tokens"), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+                .thenReturn(Set.of("jti-missed"));
+        when(zSetOperations.score("auth:revoked-tokens", "jti-missed")).thenReturn(1.0);
+
+        revocationList.onChannelSubscribed(TokenRevocationList.CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!revocationList.isRevoked("jti-missed") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(revocationList.isRevoked("jti-missed"));
+        revocationList.stop();
+    }
+}
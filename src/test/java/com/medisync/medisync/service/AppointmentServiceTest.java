@@ -0,0 +1,172 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.cache.AppointmentCacheInvalidator;
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.repository.AppointmentRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AppointmentServiceTest {
+
+    private AppointmentRepo appointmentRepo;
+    private SlotCalendarService slotCalendarService;
+    private NotificationService notificationService;
+    private AppointmentCacheInvalidator cacheInvalidator;
+    private PlatformTransactionManager transactionManager;
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepo = mock(AppointmentRepo.class);
+        slotCalendarService = mock(SlotCalendarService.class);
+        notificationService = mock(NotificationService.class);
+        cacheInvalidator = mock(AppointmentCacheInvalidator.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        appointmentService = new AppointmentService(appointmentRepo, mock(UserService.class), notificationService,
+                slotCalendarService, cacheInvalidator, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void reasonChangeIsOneWriteWithoutRead() {
+        Appointment changes = new Appointment();
+        changes.setReason("Follow-up");
+        changes.setVersion(1L);
+        Appointment saved = appointment(2L);
+        when(appointmentRepo.patch("a1", 1L, Map.of("reason", "Follow-up"))).thenReturn(Optional.of(saved));
+
+        assertEquals(Optional.of(saved), appointmentService.patchApp("a1", changes));
+        verify(appointmentRepo, never()).findById(any());
+        verify(slotCalendarService, never()).reserve(any());
+        verify(slotCalendarService).commit(saved);
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void rescheduleClaimsSlotAndGuardsWithReadVersion() {
+        when(appointmentRepo.findById("a1")).thenReturn(Optional.of(appointment(4L)));
+        Appointment changes = new Appointment();
+        changes.setAppointmentTime("11:00");
+        when(slotCalendarService.reserve(any())).thenAnswer(invocation -> {
+            invocation.<Appointment>getArgument(0).setSlotKey("d1|2025-03-10|11:00");
+            return null;
+        });
+        when(appointmentRepo.patch("a1", 4L, Map.of("appointmentTime", "11:00",
+                "appointmentAt", LocalDateTime.of(2025, 3, 10, 11, 0),
+                "slotKey", "d1|2025-03-10|11:00"))).thenReturn(Optional.of(appointment(5L)));
+
+        assertTrue(appointmentService.patchApp("a1", changes).isPresent());
+        verify(slotCalendarService).reserve(argThat(target -> "11:00".equals(target.getAppointmentTime())));
+        verify(notificationService).queueNotifications(argThat(notifications -> notifications.size() == 2
+                && notifications.get(0).getMessage().contains("has been booked")));
+    }
+
+    @Test
+    void confirmingTheHeldSlotSendsNoBookingNotification() {
+        when(appointmentRepo.findById("a1")).thenReturn(Optional.of(appointment(4L)));
+        Appointment changes = new Appointment();
+        changes.setStatus(Status.SUCCESS);
+        when(slotCalendarService.holdsSlot(any())).thenReturn(true);
+        when(slotCalendarService.reserve(any())).thenAnswer(invocation -> {
+            invocation.<Appointment>getArgument(0).setSlotKey("d1|2025-03-10|10:00");
+            return null;
+        });
+        when(appointmentRepo.patch(eq("a1"), eq(4L), anyMap())).thenReturn(Optional.of(appointment(5L)));
+
+        assertTrue(appointmentService.patchApp("a1", changes).isPresent());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void cancellationSendsCancellationNotifications() {
+        Appointment changes = new Appointment();
+        changes.setStatus(Status.CANCELLED);
+        Appointment cancelled = appointment(2L);
+        cancelled.setStatus(Status.CANCELLED);
+        when(appointmentRepo.patch(eq("a1"), isNull(), anyMap())).thenReturn(Optional.of(cancelled));
+
+        assertTrue(appointmentService.patchApp("a1", changes).isPresent());
+        verify(notificationService).queueNotifications(argThat(notifications -> notifications.size() == 2
+                && notifications.stream().allMatch(notification -> notification.getMessage().contains("has been cancelled"))));
+    }
+
+    @Test
+    void staleVersionIsAConflict() {
+        when(appointmentRepo.findById("a1")).thenReturn(Optional.of(appointment(4L)));
+        Appointment changes = new Appointment();
+        changes.setAppointmentTime("11:00");
+        changes.setVersion(3L);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> appointmentService.patchApp("a1", changes));
+        verify(appointmentRepo, never()).patch(any(), any(), any());
+    }
+
+    @Test
+    void failedOutboxWriteRollsBackBookingAndFreesSlot() {
+        Appointment booking = appointment(null);
+        booking.setId(null);
+        SlotCalendarService.Slot slot = new SlotCalendarService.Slot("d1", LocalDate.of(2025, 3, 10), 20);
+        when(slotCalendarService.reserve(booking)).thenReturn(slot);
+        when(appointmentRepo.save(booking)).thenReturn(appointment(0L));
+        doThrow(new DataAccessResourceFailureException("outbox unavailable")).when(notificationService).queueNotifications(any());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> appointmentService.saveApp(booking));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(slotCalendarService).release(slot);
+        verify(slotCalendarService, never()).commit(any());
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    void bookingCommitsAppointmentAndOutboxTogether() {
+        Appointment booking = appointment(null);
+        booking.setId(null);
+        Appointment saved = appointment(0L);
+        when(appointmentRepo.save(booking)).thenReturn(saved);
+
+        assertSame(saved, appointmentService.saveApp(booking));
+        verify(notificationService).queueNotifications(any());
+        verify(transactionManager).commit(any());
+        verify(slotCalendarService).commit(saved);
+    }
+
+    @Test
+    void uniqueSlotIndexViolationIsASlotConflict() {
+        Appointment booking = appointment(null);
+        booking.setId(null);
+        SlotCalendarService.Slot slot = new SlotCalendarService.Slot("d1", LocalDate.of(2025, 3, 10), 20);
+        when(slotCalendarService.reserve(booking)).thenReturn(slot);
+        when(slotCalendarService.conflict(booking)).thenReturn(new SlotConflictException("taken"));
+        when(appointmentRepo.save(booking)).thenThrow(new DuplicateKeyException("E11000 duplicate key error index: doctor_slot"));
+
+        assertThrows(SlotConflictException.class, () -> appointmentService.saveApp(booking));
+        verify(slotCalendarService).release(slot);
+    }
+
+    private static Appointment appointment(Long version) {
+        Appointment appointment = new Appointment();
+        appointment.setId("a1");
+        appointment.setPatientId("p1");
+        appointment.setDoctorId("d1");
+        appointment.setStatus(Status.CONFIRMED);
+        appointment.setAppointmentDate("2025-03-10");
+        appointment.setAppointmentTime("10:00");
+        appointment.setVersion(version);
+        return appointment;
+    }
+}
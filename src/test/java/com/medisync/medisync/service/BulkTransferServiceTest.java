@@ -0,0 +1,137 @@
+package com.medisync.medisync.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medisync.medisync.cache.AppointmentCacheInvalidator;
+import com.medisync.medisync.dto.BulkImportReport;
+import com.medisync.medisync.entity.Role;
+import com.medisync.medisync.entity.User;
+import com.medisync.medisync.repository.AppointmentRepo;
+import com.medisync.medisync.repository.UserRepo;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BulkTransferServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private UserRepo userRepo;
+    private SlotCalendarService slotCalendarService;
+    private BulkTransferService bulkTransferService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        userRepo = mock(UserRepo.class);
+        slotCalendarService = mock(SlotCalendarService.class);
+        bulkTransferService = new BulkTransferService(mongoTemplate, mock(AppointmentRepo.class), userRepo,
+                mock(AppointmentService.class), slotCalendarService, mock(NotificationService.class),
+                mock(AppointmentCacheInvalidator.class), new ConcurrentMapCacheManager(),
+                NoOpPasswordEncoder.getInstance(), Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(), 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importReportsBadLinesAndWritesValidOnesInBatches() throws Exception {
+        String input = String.join("\n",
+                user("alice"),
+                "{not json",
+                "",
+                "{\"username\":\"bob\",\"password\":\"secret1\",\"role\":\"PATIENT\",\"phoneNumber\":\"123\"}",
+                user("carol"),
+                user("dave"));
+
+        BulkImportReport report = bulkTransferService.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, report.getLines());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(2L, 4L), report.getErrors().stream().map(BulkImportReport.LineError::getLine).toList());
+        assertTrue(report.getErrors().get(1).getMessage().contains("phoneNumber"));
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void exportedUsersImportWithTheirHashes() throws Exception {
+        String hash = "$2a$10$abcdefghijklmnopqrstuv";
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword(hash);
+        user.setRole(Role.PATIENT);
+        user.setPhoneNumber("0123456789");
+        when(userRepo.streamAllBy()).thenReturn(Stream.of(user, user));
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        BulkTransferService service = new BulkTransferService(mongoTemplate, mock(AppointmentRepo.class), userRepo,
+                mock(AppointmentService.class), slotCalendarService, mock(NotificationService.class),
+                mock(AppointmentCacheInvalidator.class), new ConcurrentMapCacheManager(), passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportUsers(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains(hash));
+
+        List<User> inserted = new ArrayList<>();
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(0));
+            return bulkOperations;
+        });
+        BulkImportReport report = service.importUsers(new ByteArrayInputStream(lines[0].getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, report.getImported());
+        assertEquals(hash, inserted.get(0).getPassword());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void appointmentsWithUnknownPatientOrDoctorAreRejected() throws Exception {
+        User patient = new User();
+        patient.setId("p1");
+        User doctor = new User();
+        doctor.setId("d1");
+        when(userRepo.findAllById(anyIterable())).thenReturn(List.of(patient, doctor));
+        String input = String.join("\n",
+                appointment("p1", "d1", "09:00"),
+                appointment("p2", "d1", "09:30"),
+                appointment("p1", "d2", "10:00"));
+
+        BulkImportReport report = bulkTransferService.importAppointments(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), false);
+
+        assertEquals(1, report.getImported());
+        assertEquals(List.of("Patient not found: p2", "Doctor not found: d2"),
+                report.getErrors().stream().map(BulkImportReport.LineError::getMessage).toList());
+        verify(slotCalendarService, times(2)).release(isNull(SlotCalendarService.Slot.class));
+        verify(bulkOperations).execute();
+    }
+
+    private static String appointment(String patientId, String doctorId, String time) {
+        return "{\"patientId\":\"" + patientId + "\",\"doctorId\":\"" + doctorId + "\",\"reason\":\"Checkup\","
+                + "\"status\":\"CONFIRMED\",\"appointmentDate\":\"2030-01-01\",\"appointmentTime\":\"" + time + "\"}";
+    }
+
+    private static String user(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"secret1\",\"role\":\"PATIENT\",\"phoneNumber\":\"0123456789\"}";
+    }
+}
@@ -0,0 +1,80 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Notification;
+import com.medisync.medisync.repository.NotificationRepo;
+import com.medisync.medisync.repository.OutboxNotificationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NotificationServiceTest {
+
+    private NotificationRepo notificationRepo;
+    private RedisService redisService;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepo = mock(NotificationRepo.class);
+        redisService = mock(RedisService.class);
+        notificationService = new NotificationService(notificationRepo, mock(OutboxNotificationRepo.class),
+                mock(UserService.class), redisService, mock(NotificationStreamService.class));
+    }
+
+    @Test
+    void markReadDecrementsByModifiedCountOnly() {
+        when(notificationRepo.markRead("u1", List.of("n1", "n2", "n3"))).thenReturn(2L);
+        when(redisService.decrementUnread("u1", 2)).thenReturn(5L);
+
+        assertEquals(5, notificationService.markRead("u1", List.of("n1", "n2", "n3")));
+        verify(redisService).decrementUnread("u1", 2);
+    }
+
+    @Test
+    void markReadWithNothingChangedLeavesCounter() {
+        when(notificationRepo.markRead("u1", List.of("n1"))).thenReturn(0L);
+        when(redisService.getUnreadCount("u1")).thenReturn(4L);
+
+        assertEquals(4, notificationService.markRead("u1", List.of("n1")));
+        verify(redisService, never()).decrementUnread(any(), anyLong());
+    }
+
+    @Test
+    void fetchingHistoryRecountsOnlyALostCounter() {
+        when(redisService.hasUnreadCount("u1")).thenReturn(false);
+        when(notificationRepo.countByRecipientIdAndIsRead("u1", false)).thenReturn(1L);
+
+        notificationService.getNotificationsForUser("u1", 100);
+
+        verify(redisService).restoreUnreadCount("u1", 1);
+        verify(notificationRepo).findFeed("u1", null, null, 100);
+    }
+
+    @Test
+    void fetchingHistoryLeavesALiveCounterAlone() {
+        when(redisService.hasUnreadCount("u1")).thenReturn(true);
+
+        notificationService.getNotificationsForUser("u1", 100);
+
+        verify(notificationRepo, never()).countByRecipientIdAndIsRead(any(), anyBoolean());
+        verify(redisService, never()).restoreUnreadCount(any(), anyLong());
+    }
+
+    @Test
+    void fullFeedPageCarriesCursorOfLastEntry() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Notification first = Notification.builder().id("n2").recipientId("u1").timestamp(time.plusMinutes(1)).build();
+        Notification second = Notification.builder().id("n1").recipientId("u1").timestamp(time).build();
+        when(notificationRepo.findFeed("u1", null, null, 2)).thenReturn(List.of(first, second));
+        when(notificationRepo.findFeed("u1", null, null, 3)).thenReturn(List.of(first, second));
+
+        assertEquals("2025-03-01T10:00,n1", notificationService.getFeed("u1", null, null, 2).getNextCursor());
+        assertNull(notificationService.getFeed("u1", null, null, 3).getNextCursor());
+    }
+}
@@ -0,0 +1,87 @@
+package com.medisync.medisync.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medisync.medisync.entity.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class NotificationStreamServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ObjectMapper objectMapper;
+    private NotificationStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        streamService = new NotificationStreamService(redisTemplate, objectMapper, Duration.ofMinutes(1), 2, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.close();
+    }
+
+    @Test
+    void oldestStreamsAreDroppedPastTheCap() {
+        streamService.subscribe("u1");
+        streamService.subscribe("u1");
+        streamService.subscribe("u1");
+        streamService.subscribe("u2");
+
+        assertEquals(3, streamService.getOpenStreamCount());
+    }
+
+    @Test
+    void concurrentSubscribesKeepExactlyTheCap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> subscribes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                subscribes.add(executor.submit(() -> streamService.subscribe("u1")));
+            }
+            for (Future<?> subscribe : subscribes) {
+                subscribe.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2, streamService.getOpenStreamCount());
+    }
+
+    @Test
+    void publishGoesThroughTheChannel() throws Exception {
+        Notification notification = Notification.builder().id("n1").recipientId("u1").message("hi").timestamp(LocalDateTime.now()).build();
+
+        streamService.publish(notification);
+
+        verify(redisTemplate).convertAndSend(eq(NotificationStreamService.CHANNEL), eq(objectMapper.writeValueAsString(notification)));
+    }
+
+    @Test
+    void publishFallsBackToLocalDeliveryWhenRedisFails() {
+        doThrow(new IllegalStateException("down")).when(redisTemplate).convertAndSend(anyString(), anyString());
+        streamService.subscribe("u1");
+
+        assertDoesNotThrow(() -> streamService.publish(Notification.builder().id("n1").recipientId("u1").message("hi").build()));
+    }
+}
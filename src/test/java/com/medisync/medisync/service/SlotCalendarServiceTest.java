@@ -0,0 +1,133 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Appointment;
+import com.medisync.medisync.entity.Status;
+import com.medisync.medisync.repository.AppointmentRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SlotCalendarServiceTest {
+
+    private AppointmentRepo appointmentRepo;
+    private SlotCalendarService slotCalendarService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepo = mock(AppointmentRepo.class);
+        when(appointmentRepo.findByDoctorId("doc1")).thenReturn(List.of(appointment("a1", "2025-03-10", "10:00", Status.CONFIRMED)));
+        when(appointmentRepo.findByDoctorIdAndAppointmentDate("doc1", "2025-03-10")).thenReturn(List.of(appointment("a1", "2025-03-10", "10:00", Status.CONFIRMED)));
+        slotCalendarService = new SlotCalendarService(appointmentRepo, 30, "09:00", "12:00");
+    }
+
+    @Test
+    void rejectsBookingOfTakenSlot() {
+        assertThrows(SlotConflictException.class,
+                () -> slotCalendarService.reserve(appointment(null, "2025-03-10", "10:15", Status.PENDING)));
+    }
+
+    @Test
+    void takenBitIsRecheckedAgainstMongo() {
+        // Cancelled through another instance: this calendar still has the bit set.
+        when(appointmentRepo.findByDoctorIdAndAppointmentDate("doc1", "2025-03-10")).thenReturn(List.of(appointment("a1", "2025-03-10", "10:00", Status.CANCELLED)));
+
+        Appointment booking = appointment(null, "2025-03-10", "10:00", Status.PENDING);
+        assertNull(slotCalendarService.reserve(booking), "the bit was set by someone else");
+        assertEquals("doc1|2025-03-10|10:00", booking.getSlotKey());
+    }
+
+    @Test
+    void bookingThatLosesOnTheIndexKeepsTheWinnersBit() {
+        Appointment first = appointment("b1", "2025-03-10", "11:00", Status.PENDING);
+        Appointment second = appointment("b2", "2025-03-10", "11:00", Status.PENDING);
+        SlotCalendarService.Slot firstSlot = slotCalendarService.reserve(first);
+        // Neither is in Mongo yet, so the recheck lets the second one through to the index.
+        assertNull(slotCalendarService.reserve(second));
+
+        // The second booking's insert wins; the first one's fails with a duplicate key.
+        slotCalendarService.commit(second);
+        slotCalendarService.release(firstSlot);
+
+        assertFalse(freeSlots().contains("11:00"));
+    }
+
+    @Test
+    void bookingThatOwnsTheBitAndWinsKeepsIt() {
+        Appointment first = appointment("b1", "2025-03-10", "11:00", Status.PENDING);
+        Appointment second = appointment("b2", "2025-03-10", "11:00", Status.PENDING);
+        assertNotNull(slotCalendarService.reserve(first));
+        SlotCalendarService.Slot secondSlot = slotCalendarService.reserve(second);
+
+        slotCalendarService.release(secondSlot);
+        slotCalendarService.commit(first);
+
+        assertFalse(freeSlots().contains("11:00"));
+        slotCalendarService.release("b1");
+        assertTrue(freeSlots().contains("11:00"));
+    }
+
+    @Test
+    void slotKeyUsesSlotStartAndIsClearedWhenNotHeld() {
+        Appointment booking = appointment(null, "2025-03-10", "11:15", Status.PENDING);
+        slotCalendarService.reserve(booking);
+        assertEquals("doc1|2025-03-10|11:00", booking.getSlotKey());
+
+        booking.setStatus(Status.CANCELLED);
+        slotCalendarService.reserve(booking);
+        assertNull(booking.getSlotKey());
+    }
+
+    @Test
+    void updatingAppointmentInPlaceDoesNotConflictWithItself() {
+        assertNull(slotCalendarService.reserve(appointment("a1", "2025-03-10", "10:00", Status.CONFIRMED)));
+    }
+
+    @Test
+    void movingAppointmentFreesPreviousSlot() {
+        Appointment moved = appointment("a1", "2025-03-10", "11:00", Status.CONFIRMED);
+        assertNotNull(slotCalendarService.reserve(moved));
+        slotCalendarService.commit(moved);
+
+        List<String> free = slotCalendarService.findFreeSlots("doc1", LocalDate.parse("2025-03-10"), LocalDate.parse("2025-03-10"))
+                .get(LocalDate.parse("2025-03-10"));
+        assertEquals(List.of("09:00", "09:30", "10:00", "10:30", "11:30"), free);
+    }
+
+    @Test
+    void cancelledAndDeletedAppointmentsReleaseTheirSlot() {
+        assertThrows(SlotConflictException.class,
+                () -> slotCalendarService.reserve(appointment(null, "2025-03-10", "10:00", Status.PENDING)));
+        assertNull(slotCalendarService.reserve(appointment("a1", "2025-03-10", "10:00", Status.CANCELLED)));
+        slotCalendarService.commit(appointment("a1", "2025-03-10", "10:00", Status.CANCELLED));
+        assertNotNull(slotCalendarService.reserve(appointment(null, "2025-03-10", "10:00", Status.PENDING)));
+
+        Appointment other = appointment("a2", "2025-03-11", "09:00", Status.PENDING);
+        slotCalendarService.reserve(other);
+        slotCalendarService.commit(other);
+        slotCalendarService.release("a2");
+        assertNotNull(slotCalendarService.reserve(appointment(null, "2025-03-11", "09:00", Status.PENDING)));
+        verify(appointmentRepo, times(1)).findByDoctorId("doc1");
+    }
+
+    private List<String> freeSlots() {
+        LocalDate day = LocalDate.parse("2025-03-10");
+        return slotCalendarService.findFreeSlots("doc1", day, day).get(day);
+    }
+
+    private static Appointment appointment(String id, String date, String time, Status status) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctorId("doc1");
+        appointment.setPatientId("pat1");
+        appointment.setReason("Checkup");
+        appointment.setAppointmentDate(date);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(status);
+        return appointment;
+    }
+}
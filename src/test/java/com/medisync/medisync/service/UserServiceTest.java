@@ -0,0 +1,104 @@
+package com.medisync.medisync.service;
+
+import com.medisync.medisync.entity.Role;
+import com.medisync.medisync.entity.User;
+import com.medisync.medisync.repository.UserRepo;
+import com.medisync.medisync.security.RefreshTokenStore;
+import com.medisync.medisync.security.RevokedUserRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UserServiceTest {
+
+    private UserRepo userRepo;
+    private PasswordEncoder passwordEncoder;
+    private RevokedUserRegistry revokedUserRegistry;
+    private ConcurrentMapCacheManager cacheManager;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepo.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        revokedUserRegistry = mock(RevokedUserRegistry.class);
+        cacheManager = new ConcurrentMapCacheManager("userDetails", "allUsers", "doctorDirectory");
+        userService = new UserService(userRepo, passwordEncoder, revokedUserRegistry, mock(RefreshTokenStore.class), cacheManager);
+    }
+
+    @Test
+    void phoneChangeIsOneWriteWithoutHashingOrRevoking() {
+        User changes = new User();
+        changes.setPhoneNumber("555-0100");
+        changes.setVersion(3L);
+        User saved = user("u1", "alice", 4L);
+        when(userRepo.patch("u1", 3L, Map.of("phoneNumber", "555-0100"))).thenReturn(Optional.of(saved));
+
+        assertEquals(Optional.of(saved), userService.patchUser("u1", changes, false));
+        verify(userRepo, never()).findById(any());
+        verify(userRepo, never()).save(any());
+        verifyNoInteractions(passwordEncoder, revokedUserRegistry);
+        assertSame(saved, cacheManager.getCache("userDetails").get("alice").get());
+    }
+
+    @Test
+    void newPasswordIsHashedOnceAndRevokesTokens() {
+        User changes = new User();
+        changes.setPassword("secret");
+        when(passwordEncoder.encode("secret")).thenReturn("hashed");
+        when(userRepo.patch("u1", null, Map.of("password", "hashed"))).thenReturn(Optional.of(user("u1", "alice", 1L)));
+
+        userService.patchUser("u1", changes, false);
+
+        verify(passwordEncoder, times(1)).encode("secret");
+        verify(revokedUserRegistry).revoke("u1");
+    }
+
+    @Test
+    void roleIsIgnoredUnlessAllowed() {
+        User changes = new User();
+        changes.setRole(Role.ADMIN);
+        when(userRepo.findById("u1")).thenReturn(Optional.of(user("u1", "alice", 0L)));
+
+        userService.patchUser("u1", changes, false);
+
+        verify(userRepo, never()).patch(any(), any(), any());
+    }
+
+    @Test
+    void staleVersionIsAConflict() {
+        User changes = new User();
+        changes.setPhoneNumber("555-0100");
+        changes.setVersion(2L);
+        when(userRepo.patch(eq("u1"), eq(2L), anyMap())).thenReturn(Optional.empty());
+        when(userRepo.existsById("u1")).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> userService.patchUser("u1", changes, false));
+    }
+
+    @Test
+    void missingUserIsEmpty() {
+        User changes = new User();
+        changes.setPhoneNumber("555-0100");
+        when(userRepo.patch(eq("u1"), isNull(), anyMap())).thenReturn(Optional.empty());
+
+        assertTrue(userService.patchUser("u1", changes, false).isEmpty());
+    }
+
+    private static User user(String id, String username, Long version) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setVersion(version);
+        return user;
+    }
+}